@@ -0,0 +1,34 @@
+package org.xiaolin.redis.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xiaolin.redis.common.resp.R;
+import org.xiaolin.redis.domain.Book;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getBook：本地缓存读取书籍并记录一次点击
+ * @author xlxing
+ * @Description 点击热路径
+ * @create 2026/10/17
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class ClickBenchmark {
+
+    @Benchmark
+    public R<Book> getBook(RankContext context) {
+        return context.bookService.getBook(context.zipf.next());
+    }
+}
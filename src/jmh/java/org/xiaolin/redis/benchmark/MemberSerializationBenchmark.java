@@ -0,0 +1,44 @@
+package org.xiaolin.redis.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.xiaolin.redis.utils.LongRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 排行榜成员的序列化：Jackson与十进制书籍主键
+ * @author xlxing
+ * @Description 成员序列化
+ * @create 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberSerializationBenchmark {
+
+    private final Jackson2JsonRedisSerializer<Object> jackson = new Jackson2JsonRedisSerializer<>(Object.class);
+
+    private final ZipfGenerator zipf = new ZipfGenerator(10000, 1.0);
+
+    @Benchmark
+    public Object jackson() {
+        return jackson.deserialize(jackson.serialize(zipf.next()));
+    }
+
+    @Benchmark
+    public Long compact() {
+        return LongRedisSerializer.INSTANCE.deserialize(LongRedisSerializer.INSTANCE.serialize(zipf.next()));
+    }
+}
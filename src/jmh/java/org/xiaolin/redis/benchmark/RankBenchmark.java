@@ -0,0 +1,40 @@
+package org.xiaolin.redis.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xiaolin.redis.common.resp.R;
+import org.xiaolin.redis.domain.Book;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * rank：排行榜区间查询并填充书籍信息，分别覆盖前N名快照内和快照外的区间
+ * @author xlxing
+ * @Description 排行榜查询热路径
+ * @create 2026/10/17
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class RankBenchmark {
+
+    @Benchmark
+    public R<List<Book>> rankTop(RankContext context) {
+        return context.bookService.rankBook(0, 19);
+    }
+
+    @Benchmark
+    public R<List<Book>> rankDeep(RankContext context) {
+        return context.bookService.rankBook(1000, 1019);
+    }
+}
@@ -0,0 +1,94 @@
+package org.xiaolin.redis.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.xiaolin.redis.RedisRankApplication;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.utils.LongRedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 启动嵌入式Redis、H2与完整的Spring上下文，写入书籍并按Zipf分布预热总排行榜
+ * @author xlxing
+ * @Description 基准测试上下文
+ * @create 2026/10/17
+ */
+@State(Scope.Benchmark)
+public class RankContext {
+
+    @Param({"10000"})
+    public int books;
+
+    @Param({"1.0"})
+    public double exponent;
+
+    /**
+     * 点击写入模式，与rank.click.mode相同
+     */
+    @Param({"direct", "buffered"})
+    public String clickMode;
+
+    public BookService bookService;
+
+    public ZipfGenerator zipf;
+
+    private RedisServer redisServer;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        context = new SpringApplicationBuilder(RedisRankApplication.class)
+                .profiles("jmh")
+                .properties("spring.data.redis.port=" + port, "rank.click.mode=" + clickMode)
+                .run();
+        bookService = context.getBean(BookService.class);
+        zipf = new ZipfGenerator(books, exponent);
+
+        List<Book> list = new ArrayList<>(books);
+        for (int i = 1; i <= books; i++) {
+            list.add(new Book((long) (i % 100), "Book:" + i));
+        }
+        bookService.saveBatch(list);
+
+        // 总排行榜：每本书的初始点击量同样服从Zipf分布
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, Long> rankRedisTemplate = context.getBean("rankRedisTemplate", RedisTemplate.class);
+        byte[] sortKey = RedisConstant.getSortKey().getBytes(StandardCharsets.UTF_8);
+        rankRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (long id = 1; id <= books; id++) {
+                connection.zSetCommands().zAdd(sortKey, Math.floor(1_000_000 / (double) id),
+                        LongRedisSerializer.INSTANCE.serialize(id));
+            }
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        redisServer.stop();
+    }
+}
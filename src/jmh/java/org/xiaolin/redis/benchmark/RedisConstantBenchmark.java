@@ -0,0 +1,41 @@
+package org.xiaolin.redis.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xiaolin.redis.common.constant.RedisConstant;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每次点击都要生成的分桶排行榜key
+ * @author xlxing
+ * @Description 排行榜key生成
+ * @create 2026/10/17
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisConstantBenchmark {
+
+    @Benchmark
+    public String sortHourKey() {
+        return RedisConstant.getSortHourKey();
+    }
+
+    @Benchmark
+    public String sortDayKey() {
+        return RedisConstant.getSortDayKey();
+    }
+
+    @Benchmark
+    public String smoothSortKey() {
+        return RedisConstant.getSmoothSortKey();
+    }
+}
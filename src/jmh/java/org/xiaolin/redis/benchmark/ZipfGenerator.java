@@ -0,0 +1,36 @@
+package org.xiaolin.redis.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按Zipf分布生成书籍主键：排名为k的书被点击的概率与1/k^s成正比，少数热门书占据大部分点击
+ * @author xlxing
+ * @Description Zipf分布的书籍主键
+ * @create 2026/10/17
+ */
+public class ZipfGenerator {
+
+    private final double[] cdf;
+
+    /**
+     * @param books 书籍数量，主键为1~books
+     * @param exponent 分布的指数s，越大越集中
+     */
+    public ZipfGenerator(int books, double exponent) {
+        cdf = new double[books];
+        double sum = 0;
+        for (int k = 1; k <= books; k++) {
+            sum += 1 / Math.pow(k, exponent);
+            cdf[k - 1] = sum;
+        }
+        for (int i = 0; i < books; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    public long next() {
+        int index = Arrays.binarySearch(cdf, ThreadLocalRandom.current().nextDouble());
+        return (index >= 0 ? index : -index - 1) + 1L;
+    }
+}
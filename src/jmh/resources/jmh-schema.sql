@@ -0,0 +1,15 @@
+DROP TABLE IF EXISTS book;
+
+CREATE TABLE book (
+    id          bigint      NOT NULL AUTO_INCREMENT,
+    name        varchar(30) NOT NULL,
+    author_id   bigint      NOT NULL,
+    click_num   int         NOT NULL,
+    like_num    int         NOT NULL,
+    comment_num int         NOT NULL,
+    create_time datetime DEFAULT NULL,
+    update_time datetime DEFAULT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_update_time_id ON book (update_time, id);
@@ -4,12 +4,14 @@ import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * @author xlxing
  */
 @SpringBootApplication
 @MapperScan("org.xiaolin.redis.mapper")
+@EnableScheduling
 public class RedisRankApplication {
 
     public static void main(String[] args) {
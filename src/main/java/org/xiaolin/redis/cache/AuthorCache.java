@@ -0,0 +1,138 @@
+package org.xiaolin.redis.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.mapper.BookMapper;
+import org.xiaolin.redis.metrics.RankMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 点击路径上按书籍主键查作者，只缓存作者主键，容量可以比书籍缓存大得多。
+ * 先查书籍缓存，未命中时只SELECT id, author_id；不存在的书籍也缓存，避免每次点击都查询数据库。
+ * 与书籍缓存订阅同一个失效频道
+ * @author xlxing
+ * @Description 书籍作者本地缓存
+ * @create 2026/10/17
+ */
+@Slf4j
+@Component
+public class AuthorCache implements MessageListener {
+
+    /**
+     * 书籍不存在或没有作者
+     */
+    private static final long NO_AUTHOR = -1L;
+
+    /**
+     * 批量查询时每条IN查询的主键数
+     */
+    private static final int SELECT_BATCH = 1000;
+
+    private final BookMapper bookMapper;
+
+    private final BookCache bookCache;
+
+    private final RankMetrics rankMetrics;
+
+    private final Cache<Long, Long> cache;
+
+    public AuthorCache(BookMapper bookMapper, BookCache bookCache, RankProperties rankProperties,
+                       MeterRegistry meterRegistry, RankMetrics rankMetrics) {
+        this.bookMapper = bookMapper;
+        this.bookCache = bookCache;
+        this.rankMetrics = rankMetrics;
+        RankProperties.Author config = rankProperties.getAuthor();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getCacheSize())
+                .expireAfterWrite(rankProperties.getBookCache().getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "author");
+    }
+
+    /**
+     * @param bookId 书籍主键
+     * @return 作者主键，书籍不存在时为null
+     */
+    public Long authorId(Long bookId) {
+        Book book = bookCache.getIfPresent(bookId);
+        if (book != null) {
+            return book.getAuthorId();
+        }
+        long authorId = cache.get(bookId, id -> {
+            Book loaded = rankMetrics.mysql("select_author", () -> bookMapper.selectOne(new LambdaQueryWrapper<Book>()
+                    .select(Book::getId, Book::getAuthorId)
+                    .eq(Book::getId, id)));
+            return loaded == null || loaded.getAuthorId() == null ? NO_AUTHOR : loaded.getAuthorId();
+        });
+        return authorId == NO_AUTHOR ? null : authorId;
+    }
+
+    /**
+     * 批量查询作者，书籍缓存和本缓存都未命中的书籍每{@value #SELECT_BATCH}本合并为一次IN查询
+     * @param bookIds 书籍主键
+     * @return 书籍主键 -> 作者主键，书籍不存在或没有作者时不在结果中
+     */
+    public Map<Long, Long> authorIds(Collection<Long> bookIds) {
+        Map<Long, Long> authorIds = new HashMap<>(bookIds.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        bookCache.getAllPresent(bookIds).forEach((bookId, book) -> authorIds.put(bookId, book.getAuthorId()));
+        for (Long bookId : bookIds) {
+            if (!authorIds.containsKey(bookId)) {
+                missing.add(bookId);
+            }
+        }
+        cache.getAll(missing, this::load).forEach(authorIds::put);
+        authorIds.values().removeIf(authorId -> authorId == null || authorId == NO_AUTHOR);
+        return authorIds;
+    }
+
+    private Map<Long, Long> load(Set<? extends Long> bookIds) {
+        Map<Long, Long> loaded = new HashMap<>(bookIds.size() * 2);
+        List<Long> ids = new ArrayList<>(bookIds);
+        for (int from = 0; from < ids.size(); from += SELECT_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(from + SELECT_BATCH, ids.size()));
+            rankMetrics.mysql("select_author_batch", () -> bookMapper.selectList(new LambdaQueryWrapper<Book>()
+                            .select(Book::getId, Book::getAuthorId)
+                            .in(Book::getId, batch)))
+                    .forEach(book -> loaded.put(book.getId(), book.getAuthorId() == null ? NO_AUTHOR : book.getAuthorId()));
+        }
+        // 不存在的书籍同样缓存
+        ids.forEach(bookId -> loaded.putIfAbsent(bookId, NO_AUTHOR));
+        return loaded;
+    }
+
+    /**
+     * 只失效本实例的缓存，其他实例由{@link BookCache#evict(Long)}的通知失效
+     * @param bookId 书籍主键
+     */
+    public void invalidate(Long bookId) {
+        cache.invalidate(bookId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            cache.invalidate(Long.valueOf(body));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析的书籍缓存失效消息: {}", body);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.xiaolin.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.mapper.BookMapper;
+import org.xiaolin.redis.metrics.RankMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 书籍本地缓存，位于BookMapper之前，按容量和写入时间淘汰。
+ * 书籍更新、删除时通过Redis发布订阅通知所有实例失效本地副本
+ * @author xlxing
+ * @Description 书籍本地缓存
+ * @create 2026/10/17
+ */
+@Slf4j
+@Component
+public class BookCache implements MessageListener {
+
+    private final BookMapper bookMapper;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final Cache<Long, Book> cache;
+
+    private final RankMetrics rankMetrics;
+
+    private final BookIdFilter bookIdFilter;
+
+    public BookCache(BookMapper bookMapper, RedisTemplate<String, Object> redisTemplate,
+                     RankProperties rankProperties, MeterRegistry meterRegistry, RankMetrics rankMetrics,
+                     BookIdFilter bookIdFilter) {
+        this.bookMapper = bookMapper;
+        this.redisTemplate = redisTemplate;
+        this.rankMetrics = rankMetrics;
+        this.bookIdFilter = bookIdFilter;
+        RankProperties.BookCache config = rankProperties.getBookCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}、cache.evictions等指标
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "book");
+    }
+
+    /**
+     * 查询书籍，未命中时读数据库，不存在的书籍不缓存。
+     * 布隆过滤器判定一定不存在的主键不读数据库
+     * @param bookId 书籍主键
+     * @return 书籍，不存在时为null
+     */
+    public Book get(Long bookId) {
+        return cache.get(bookId, id -> bookIdFilter.mightExist(id)
+                ? rankMetrics.mysql("select_by_id", () -> bookMapper.selectById(id))
+                : null);
+    }
+
+    /**
+     * 只读本地缓存，不访问数据库
+     * @param bookId 书籍主键
+     * @return 书籍，未缓存时为null
+     */
+    public Book getIfPresent(Long bookId) {
+        return cache.getIfPresent(bookId);
+    }
+
+    /**
+     * 只读本地缓存，不访问数据库
+     * @param bookIds 书籍主键
+     * @return 主键 -> 书籍，只包含已缓存的书籍
+     */
+    public Map<Long, Book> getAllPresent(Collection<Long> bookIds) {
+        return cache.getAllPresent(bookIds);
+    }
+
+    /**
+     * 批量查询书籍，未命中的部分合并为一次IN查询
+     * @param bookIds 书籍主键
+     * @return 主键 -> 书籍，不存在的书籍不在结果中
+     */
+    public Map<Long, Book> getAll(Collection<Long> bookIds) {
+        return cache.getAll(bookIds, missing -> rankMetrics.mysql("select_batch", () -> bookMapper.selectBatchIds(missing))
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity())));
+    }
+
+    /**
+     * 通知所有实例(包括本实例)失效该书籍的本地缓存
+     * @param bookId 书籍主键
+     */
+    public void evict(Long bookId) {
+        cache.invalidate(bookId);
+        redisTemplate.convertAndSend(RedisConstant.BOOK_CACHE_CHANNEL, bookId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            cache.invalidate(Long.valueOf(body));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析的书籍缓存失效消息: {}", body);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.xiaolin.redis.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.mapper.BookMapper;
+import org.xiaolin.redis.metrics.RankMetrics;
+import org.xiaolin.redis.utils.BloomFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 爬虫探测随机主键时，每个请求都要查一次数据库才能确定书籍不存在。
+ * 这里在本地保存全部书籍主键的布隆过滤器，判定一定不存在的主键直接拒绝，不查询数据库也不计点击。
+ * 启动时和每rank.book-filter.rebuild-interval-ms从book表流式重建。
+ * 通过addBook新增的书籍在book:cache:invalidate频道广播，所有实例立即加入过滤器。
+ * 重建时还记录读到的最大主键，更大的主键一律放行查询数据库，作为saveBatch等未广播写入的兜底；
+ * 小于最大主键的未广播写入（晚提交的自增主键、指定主键的SQL导入）在下次重建前会被拒绝。
+ * 布隆过滤器不能删除元素，已删除的书籍在下次重建前仍会通过过滤器，由数据库查询兜底。
+ * 首次构建完成前以及关闭时所有主键都视为可能存在
+ * @author xlxing
+ * @Description 书籍主键过滤器
+ * @create 2026/10/17
+ */
+@Slf4j
+@Component
+public class BookIdFilter implements MessageListener {
+
+    /**
+     * 书籍很少时的最小容量
+     */
+    private static final long MIN_CAPACITY = 1024;
+
+    private final BookMapper bookMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RankProperties rankProperties;
+
+    private final RankMetrics rankMetrics;
+
+    private final Counter rejected;
+
+    /**
+     * 当前使用的过滤器，首次构建完成前为null
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * 重建中的过滤器，重建期间新增的书籍同时加入
+     */
+    private volatile BloomFilter building;
+
+    public BookIdFilter(BookMapper bookMapper, TransactionTemplate transactionTemplate,
+                        RedisTemplate<String, Object> redisTemplate, RankProperties rankProperties,
+                        MeterRegistry meterRegistry, RankMetrics rankMetrics) {
+        this.bookMapper = bookMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.redisTemplate = redisTemplate;
+        this.rankProperties = rankProperties;
+        this.rankMetrics = rankMetrics;
+        this.rejected = Counter.builder("rank.book_filter.rejected")
+                .description("被布隆过滤器判定为不存在、未查询数据库的书籍请求")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param bookId 书籍主键
+     * @return false表示书籍一定不存在
+     */
+    public boolean mightExist(Long bookId) {
+        Snapshot current = snapshot;
+        if (current == null || !rankProperties.getBookFilter().isEnabled()
+                || bookId > current.maxId() || current.filter().mightContain(bookId)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * 新增书籍后调用，通知所有实例(包括本实例)加入该主键。
+     * 与书籍缓存共用失效频道，其它实例的BookCache、AuthorCache收到后只是多失效一个未缓存的主键
+     * @param bookId 书籍主键
+     */
+    public void add(Long bookId) {
+        put(bookId);
+        redisTemplate.convertAndSend(RedisConstant.BOOK_CACHE_CHANNEL, bookId);
+    }
+
+    /**
+     * 按当前书籍数分配新的过滤器，流式读取全部主键后替换，旧过滤器中已删除的书籍随之剔除
+     */
+    @Scheduled(fixedDelayString = "${rank.book-filter.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        RankProperties.BookFilter config = rankProperties.getBookFilter();
+        if (!config.isEnabled()) {
+            return;
+        }
+        rankMetrics.job("book_filter_rebuild", () -> {
+            long books = rankMetrics.mysql("count", () -> bookMapper.selectCount(null));
+            BloomFilter filter = new BloomFilter(Math.max((long) (books * config.getHeadroom()), MIN_CAPACITY),
+                    config.getFalsePositiveRate());
+            long[] scanned = new long[2];
+            // 先登记再开始读取：此后新增的书籍同时加入filter，此前提交的书籍一定在游标中
+            building = filter;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Cursor<Long> cursor = bookMapper.scanIds()) {
+                        for (Long bookId : cursor) {
+                            filter.put(bookId);
+                            scanned[0]++;
+                            scanned[1] = Math.max(scanned[1], bookId);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                snapshot = new Snapshot(filter, scanned[1]);
+            } finally {
+                building = null;
+            }
+            log.info("重建书籍主键过滤器，共{}本书籍，最大主键{}，占用{}KB", scanned[0], scanned[1], filter.sizeInBytes() >>> 10);
+        });
+    }
+
+    /**
+     * 失效通知中的主键都加入过滤器：新增的书籍因此可查，更新、删除的书籍多加一次不影响结果
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            put(Long.valueOf(body));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析的书籍缓存失效消息: {}", body);
+        }
+    }
+
+    private void put(Long bookId) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            current.filter().put(bookId);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(bookId);
+        }
+    }
+
+    /**
+     * @param maxId 构建时读到的最大主键，更大的主键不经过过滤器
+     */
+    private record Snapshot(BloomFilter filter, long maxId) {
+    }
+}
@@ -0,0 +1,138 @@
+package org.xiaolin.redis.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.domain.Book;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 排行榜前N名的本地快照。快照过期后只有一个线程回源刷新，
+ * 其余线程在已有快照时直接读旧快照，没有快照时等待这一次刷新的结果
+ * @author xlxing
+ * @Description 排行榜快照缓存
+ * @create 2026/10/17
+ */
+@Component
+@RequiredArgsConstructor
+public class RankSnapshotCache {
+
+    private final RankProperties rankProperties;
+
+    /**
+     * 排行榜key -> 快照
+     */
+    private final ConcurrentHashMap<String, Entry> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 排行榜key -> 正在进行的刷新
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> refreshing = new ConcurrentHashMap<>();
+
+    /**
+     * 从快照中读取排行榜区间
+     * @param sortKey 排行榜key
+     * @param start 开始索引
+     * @param end 结束索引
+     * @param loader 回源加载前N名
+     * @return 书籍列表，区间超出快照范围时返回null
+     */
+    public List<Book> get(String sortKey, int start, int end, Supplier<Snapshot> loader) {
+        return slice(snapshot(sortKey, loader), start, end);
+    }
+
+    /**
+     * 只读未过期的快照，不触发刷新
+     * @param sortKey 排行榜key
+     * @param start 开始索引
+     * @param end 结束索引
+     * @return 书籍列表，快照不存在、已过期或区间超出快照范围时返回null
+     */
+    public List<Book> peek(String sortKey, int start, int end) {
+        Entry entry = snapshots.get(sortKey);
+        if (entry == null || System.currentTimeMillis() - entry.loadedAt() >= rankProperties.getSnapshot().getTtl().toMillis()) {
+            return null;
+        }
+        return slice(entry.snapshot(), start, end);
+    }
+
+    /**
+     * 读取快照，不论是否过期，Redis不可用时作为降级结果
+     * @param sortKey 排行榜key
+     * @param start 开始索引
+     * @param end 结束索引
+     * @return 书籍列表，快照不存在或区间超出快照范围时返回null
+     */
+    public List<Book> stale(String sortKey, int start, int end) {
+        Entry entry = snapshots.get(sortKey);
+        return entry == null ? null : slice(entry.snapshot(), start, end);
+    }
+
+    /**
+     * 丢弃全部快照，书籍被删除时调用
+     */
+    public void clear() {
+        snapshots.clear();
+    }
+
+    private static List<Book> slice(Snapshot snapshot, int start, int end) {
+        List<Book> books = snapshot.books();
+        if (end >= books.size() && !snapshot.exhausted()) {
+            return null;
+        }
+        return books.subList(Math.min(start, books.size()), Math.min(end + 1, books.size()));
+    }
+
+    private Snapshot snapshot(String sortKey, Supplier<Snapshot> loader) {
+        long ttl = rankProperties.getSnapshot().getTtl().toMillis();
+        long now = System.currentTimeMillis();
+        Entry entry = snapshots.get(sortKey);
+        if (entry != null && now - entry.loadedAt() < ttl) {
+            return entry.snapshot();
+        }
+
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        CompletableFuture<Entry> running = refreshing.putIfAbsent(sortKey, future);
+        if (running == null) {
+            try {
+                Entry loaded = new Entry(loader.get(), System.currentTimeMillis());
+                snapshots.put(sortKey, loaded);
+                // 小时榜、日榜的key会轮换，顺带清理长时间未刷新的快照
+                snapshots.values().removeIf(e -> loaded.loadedAt() - e.loadedAt() > 2 * ttl);
+                future.complete(loaded);
+                return loaded.snapshot();
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                refreshing.remove(sortKey, future);
+            }
+        }
+        if (entry != null) {
+            return entry.snapshot();
+        }
+        try {
+            return running.join().snapshot();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param books 排行榜前N名，已去除数据库中不存在的书籍
+     * @param exhausted 排行榜成员数不足N，快照之外没有更多数据
+     */
+    public record Snapshot(List<Book> books, boolean exhausted) {
+    }
+
+    private record Entry(Snapshot snapshot, long loadedAt) {
+    }
+}
@@ -23,25 +23,194 @@ public class RedisConstant {
 
     public static String SORT_HOUR_PREFIX = "book:hour:";
 
+    /**
+     * 最近N小时滚动窗口排行榜，由小时排行榜增量维护
+     */
+    public static String ROLLING_SORT_PREFIX = "book:rolling:";
+
     public static String SMOOTH_SORT_KEY = "book:smooth";
     public static Double BETA = 1.1;
 
+    /**
+     * 指数衰减热度排行榜，score为对数空间的热度，不需要按天轮换
+     */
+    public static String DECAY_SORT_KEY = "book:decay";
+
+    /**
+     * 衰减排行榜的时间起点，对数热度 = ln2 / 半衰期 * 距起点的秒数
+     */
+    public static LocalDateTime DECAY_EPOCH = LocalDateTime.of(2023, 1, 1, 0, 0, 0);
+
+    /**
+     * 总排行榜持久化到MySQL的ZSCAN游标，任务中断后从这里继续
+     */
+    public static String PERSIST_CURSOR_KEY = "book:persist:cursor";
+
+    /**
+     * 从MySQL重建排行榜期间存在，持久化任务看到它时不写click_num
+     */
+    public static String REBUILD_FENCE_KEY = "book:rebuild:fence";
+
+    /**
+     * 重新分片的锁，完成标记在其后加":done"
+     */
+    public static String RESHARD_LOCK_PREFIX = "book:reshard:";
+
+    /**
+     * 上次持久化之后有过点击的书籍
+     */
+    public static String DIRTY_SET_KEY = "book:dirty";
+
+    /**
+     * 正在持久化的书籍，由DIRTY_SET_KEY改名得到
+     */
+    public static String DIRTY_PROCESSING_KEY = "book:dirty:processing";
+
+    /**
+     * 书籍本地缓存失效通知频道
+     */
+    public static String BOOK_CACHE_CHANNEL = "book:cache:invalidate";
+
+    /**
+     * 各实例交换的高频书籍统计，后接实例名，HASH类型
+     */
+    public static String TRENDING_PREFIX = "book:trending:";
+
+    /**
+     * 参与交换的实例，分数为最近一次交换的时间戳
+     */
+    public static String TRENDING_INSTANCES_KEY = "book:trending:instances";
+
+    /**
+     * 每本书每天的独立读者，HyperLogLog类型，后接yyyyMMdd:书籍主键
+     */
+    public static String UNIQUE_HLL_PREFIX = "book:uv:hll:";
+
+    /**
+     * 当天有过独立读者的书籍，后接yyyyMMdd，物化时只需对其中的书籍执行PFCOUNT
+     */
+    public static String UNIQUE_TOUCHED_PREFIX = "book:uv:touched:";
+
+    /**
+     * 当天独立读者排行榜，由HyperLogLog定时物化得到，后接yyyyMMdd
+     */
+    public static String UNIQUE_SORT_PREFIX = "book:uv:sort:";
+
+    /**
+     * 每天的点赞数，后接yyyyMMdd
+     */
+    public static String LIKE_DAY_PREFIX = "book:like:day:";
+
+    /**
+     * 每天的评论数，后接yyyyMMdd
+     */
+    public static String COMMENT_DAY_PREFIX = "book:comment:day:";
+
+    /**
+     * 当天点击、点赞、评论按权重合并的综合排行榜，后接yyyyMMdd，由定时任务ZUNIONSTORE得到
+     */
+    public static String ENGAGEMENT_SORT_PREFIX = "book:engagement:";
+
+    /**
+     * 每个作者的书籍点击排行榜，后接作者主键
+     */
+    public static String AUTHOR_SORT_PREFIX = "book:author:";
+
+    /**
+     * 作者排行榜，成员为作者主键，分数为其全部书籍的总点击量
+     */
+    public static String AUTHORS_SORT_KEY = "book:authors";
+
+    /**
+     * 分桶key中的时间格式，DateTimeFormatter线程安全，不必每次解析模式串
+     */
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    private static final DateTimeFormatter SECOND_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
     public static String getSortKey() {
         return SORT_KEY;
     }
+    public static String getDecaySortKey() {
+        return DECAY_SORT_KEY;
+    }
+
     public static String getSortDayKey() {
-        return SORT_DAY_PREFIX + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        return getSortDayKey(LocalDateTime.now());
+    }
+
+    public static String getSortDayKey(LocalDateTime time) {
+        return SORT_DAY_PREFIX + time.format(DAY_FORMATTER);
+    }
+    public static String getUniqueHllKey(LocalDateTime time, Long bookId) {
+        return UNIQUE_HLL_PREFIX + time.format(DAY_FORMATTER) + ":" + bookId;
+    }
+
+    public static String getUniqueTouchedKey(LocalDateTime time) {
+        return UNIQUE_TOUCHED_PREFIX + time.format(DAY_FORMATTER);
+    }
+
+    public static String getUniqueSortKey() {
+        return getUniqueSortKey(LocalDateTime.now());
+    }
+
+    public static String getUniqueSortKey(LocalDateTime time) {
+        return UNIQUE_SORT_PREFIX + time.format(DAY_FORMATTER);
+    }
+
+    public static String getLikeDayKey(LocalDateTime time) {
+        return LIKE_DAY_PREFIX + time.format(DAY_FORMATTER);
+    }
+
+    public static String getCommentDayKey(LocalDateTime time) {
+        return COMMENT_DAY_PREFIX + time.format(DAY_FORMATTER);
+    }
+
+    public static String getEngagementSortKey() {
+        return getEngagementSortKey(LocalDateTime.now());
+    }
+
+    public static String getEngagementSortKey(LocalDateTime time) {
+        return ENGAGEMENT_SORT_PREFIX + time.format(DAY_FORMATTER);
+    }
+
+    public static String getAuthorSortKey(Long authorId) {
+        return AUTHOR_SORT_PREFIX + authorId;
     }
+
     public static String getSortHourKey() {
-        return SORT_HOUR_PREFIX + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHH"));
+        return getSortHourKey(LocalDateTime.now());
+    }
+
+    public static String getSortHourKey(LocalDateTime time) {
+        return SORT_HOUR_PREFIX + time.format(HOUR_FORMATTER);
+    }
+
+    public static String getRollingSortKey(int hours) {
+        return ROLLING_SORT_PREFIX + hours + "h";
+    }
+
+    /**
+     * 滚动窗口已经包含到的最后一个小时，格式yyyyMMddHH
+     */
+    public static String getRollingCursorKey(int hours) {
+        return getRollingSortKey(hours) + ":cursor";
+    }
+
+    public static String getReshardLockKey(String board, int fromCount, int toCount) {
+        return RESHARD_LOCK_PREFIX + board + ":" + fromCount + "-" + toCount;
     }
 
     public static String getSmoothSortKey() {
         // 获取当前日期，每天的02:01:00作为benchTime
-        return SMOOTH_SORT_KEY + getSmoothSortDateTime().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        return SMOOTH_SORT_KEY + getSmoothSortDateTime().format(SECOND_FORMATTER);
+    }
+
+    public static String getSmoothSortKey(LocalDateTime time) {
+        return SMOOTH_SORT_KEY + getSmoothSortDateTime(time).format(SECOND_FORMATTER);
     }
     public static String getLastSmoothSortKey() {
-        return SMOOTH_SORT_KEY + getSmoothSortDateTime(1L).format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        return SMOOTH_SORT_KEY + getSmoothSortDateTime(1L).format(SECOND_FORMATTER);
     }
 
     private static LocalDateTime getLocalDateTime(LocalDateTime now) {
@@ -64,11 +233,15 @@ public class RedisConstant {
         return getLocalDateTime(now);
     }
 
+    public static LocalDateTime getSmoothSortDateTime(LocalDateTime time) {
+        return getLocalDateTime(time);
+    }
+
     public static String getLastSortHourKey() {
-        return SORT_HOUR_PREFIX + LocalDateTime.now().minusHours(1).format(DateTimeFormatter.ofPattern("yyyyMMddHH"));
+        return SORT_HOUR_PREFIX + LocalDateTime.now().minusHours(1).format(HOUR_FORMATTER);
     }
 
     public static String getLastSortDayKey() {
-        return SORT_DAY_PREFIX + LocalDateTime.now().minusDays(1).format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        return SORT_DAY_PREFIX + LocalDateTime.now().minusDays(1).format(DAY_FORMATTER);
     }
 }
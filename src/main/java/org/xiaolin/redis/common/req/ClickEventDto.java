@@ -0,0 +1,35 @@
+package org.xiaolin.redis.common.req;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author xlxing
+ * @Description 批量导入的点击事件，NDJSON中的一行
+ * @create 2026/10/17
+ */
+@Schema(description = "批量导入的点击事件")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClickEventDto {
+    /**
+     * 书籍主键
+     */
+    @Schema(description = "书籍主键", defaultValue = "1")
+    private Long bookId;
+
+    /**
+     * 点击次数，缺省为1
+     */
+    @Schema(description = "点击次数", defaultValue = "1")
+    private Long count;
+
+    /**
+     * 点击时间，epoch毫秒，缺省为当前时间
+     */
+    @Schema(description = "点击时间，epoch毫秒")
+    private Long timestamp;
+}
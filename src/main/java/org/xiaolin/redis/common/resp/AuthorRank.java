@@ -0,0 +1,33 @@
+package org.xiaolin.redis.common.resp;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @author xlxing
+ * @Description 作者排行榜中的一位作者
+ * @create 2026/10/17
+ */
+@Schema(description = "作者排行榜中的一位作者")
+@Getter
+@ToString
+@AllArgsConstructor
+public class AuthorRank {
+
+    @Schema(description = "作者主键")
+    private final Long authorId;
+
+    /**
+     * 名次，从1开始
+     */
+    @Schema(description = "名次，从1开始")
+    private final long rank;
+
+    /**
+     * 全部书籍的总点击量
+     */
+    @Schema(description = "全部书籍的总点击量")
+    private final double clicks;
+}
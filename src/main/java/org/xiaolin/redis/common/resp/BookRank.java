@@ -0,0 +1,38 @@
+package org.xiaolin.redis.common.resp;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * @author xlxing
+ * @Description 书籍在排行榜中的名次，以及前后相邻的书籍
+ * @create 2026/10/17
+ */
+@Schema(description = "书籍在排行榜中的名次及相邻书籍")
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookRank {
+
+    @Schema(description = "书籍主键")
+    private final Long bookId;
+
+    /**
+     * 名次，从1开始
+     */
+    @Schema(description = "名次，从1开始")
+    private final long rank;
+
+    @Schema(description = "分数")
+    private final double score;
+
+    /**
+     * 按名次排列，包含书籍本身，数据库中已不存在的书籍被跳过
+     */
+    @Schema(description = "前后相邻的书籍，按名次排列，包含书籍本身")
+    private final List<RankEntry> neighbours;
+}
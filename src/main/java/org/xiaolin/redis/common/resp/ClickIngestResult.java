@@ -0,0 +1,41 @@
+package org.xiaolin.redis.common.resp;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @author xlxing
+ * @Description 批量导入点击的结果
+ * @create 2026/10/17
+ */
+@Schema(description = "批量导入点击的结果")
+@Getter
+@ToString
+@AllArgsConstructor
+public class ClickIngestResult {
+    /**
+     * 读取的点击事件数
+     */
+    @Schema(description = "读取的点击事件数")
+    private final long events;
+
+    /**
+     * 书籍主键、次数或时间不合法而跳过的事件数
+     */
+    @Schema(description = "跳过的事件数")
+    private final long skipped;
+
+    /**
+     * 合并后写入Redis的命令数
+     */
+    @Schema(description = "写入Redis的命令数")
+    private final long commands;
+
+    /**
+     * 耗时，单位毫秒
+     */
+    @Schema(description = "耗时，单位毫秒")
+    private final long elapsedMs;
+}
@@ -0,0 +1,31 @@
+package org.xiaolin.redis.common.resp;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.xiaolin.redis.domain.Book;
+
+/**
+ * @author xlxing
+ * @Description 排行榜中的一本书
+ * @create 2026/10/17
+ */
+@Schema(description = "排行榜中的一本书")
+@Getter
+@ToString
+@AllArgsConstructor
+public class RankEntry {
+
+    @Schema(description = "书籍")
+    private final Book book;
+
+    /**
+     * 名次，从1开始
+     */
+    @Schema(description = "名次，从1开始")
+    private final long rank;
+
+    @Schema(description = "分数")
+    private final double score;
+}
@@ -0,0 +1,35 @@
+package org.xiaolin.redis.common.resp;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * @author xlxing
+ * @Description 基于游标的分页结果，不统计总数
+ * @create 2026/10/17
+ */
+@Schema(description = "基于游标的分页结果")
+@Getter
+@ToString
+@AllArgsConstructor
+public class SeekPage<T> {
+
+    @Schema(description = "本页记录")
+    private final List<T> records;
+
+    /**
+     * 下一页的游标，原样传回即可，没有更多记录时为null
+     */
+    @Schema(description = "下一页的游标，没有更多记录时为空")
+    private final String next;
+
+    /**
+     * 本页之前实际跳过的记录数，剩余记录不足时小于请求的跳过数
+     */
+    @Schema(description = "本页之前实际跳过的记录数")
+    private final int skipped;
+}
@@ -0,0 +1,34 @@
+package org.xiaolin.redis.common.resp;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.xiaolin.redis.domain.Book;
+
+/**
+ * @author xlxing
+ * @Description 近似的热门书籍，真实的衰减点击量在[lowerBound, estimate]之间
+ * @create 2026/10/17
+ */
+@Schema(description = "近似的热门书籍")
+@Getter
+@ToString
+@AllArgsConstructor
+public class TrendingBook {
+
+    @Schema(description = "书籍")
+    private final Book book;
+
+    /**
+     * 衰减点击量的估计值，不小于真实值
+     */
+    @Schema(description = "衰减点击量的估计值，不小于真实值")
+    private final double estimate;
+
+    /**
+     * 衰减点击量的下界
+     */
+    @Schema(description = "衰减点击量的下界")
+    private final double lowerBound;
+}
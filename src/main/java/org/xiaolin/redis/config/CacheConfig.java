@@ -2,10 +2,20 @@ package org.xiaolin.redis.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.xiaolin.redis.cache.AuthorCache;
+import org.xiaolin.redis.cache.BookCache;
+import org.xiaolin.redis.cache.BookIdFilter;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.utils.LongRedisSerializer;
 
 /**
  * @author xlxing
@@ -28,4 +38,43 @@ public class CacheConfig {
         redisTemplate.setValueSerializer(new Jackson2JsonRedisSerializer<Object>(Object.class));
         return redisTemplate;
     }
+
+    /**
+     * 排行榜专用模板，成员为书籍主键，以十进制ASCII保存，不经过Jackson
+     */
+    @Bean
+    public RedisTemplate<String, Long> rankRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        RedisTemplate<String, Long> rankRedisTemplate = new RedisTemplate<>();
+        rankRedisTemplate.setConnectionFactory(redisConnectionFactory);
+        rankRedisTemplate.setKeySerializer(new StringRedisSerializer());
+        rankRedisTemplate.setValueSerializer(LongRedisSerializer.INSTANCE);
+        return rankRedisTemplate;
+    }
+
+    /**
+     * 响应式的排行榜模板，序列化与rankRedisTemplate相同
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, Long> reactiveRankRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+        RedisSerializationContext<String, Long> serializationContext = RedisSerializationContext
+                .<String, Long>newSerializationContext(new StringRedisSerializer())
+                .value(LongRedisSerializer.INSTANCE)
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+    }
+
+    /**
+     * 订阅书籍缓存失效通知，新增书籍也在该频道广播
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       BookCache bookCache, AuthorCache authorCache,
+                                                                       BookIdFilter bookIdFilter) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(bookCache, new ChannelTopic(RedisConstant.BOOK_CACHE_CHANNEL));
+        container.addMessageListener(authorCache, new ChannelTopic(RedisConstant.BOOK_CACHE_CHANNEL));
+        container.addMessageListener(bookIdFilter, new ChannelTopic(RedisConstant.BOOK_CACHE_CHANNEL));
+        return container;
+    }
 }
@@ -2,9 +2,13 @@ package org.xiaolin.redis.config;
 
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Properties;
+
 /**
  * @author xlxing
  * @Description MyBatisPlus配置信息
@@ -19,4 +23,18 @@ public class MybatisPlusConfig {
         mybatisPlusInterceptor.addInnerInterceptor(new PaginationInnerInterceptor());
         return mybatisPlusInterceptor;
     }
+
+    /**
+     * 按数据库区分映射文件中的语句，MySQL与MariaDB为mysql，基准测试使用的H2为h2
+     */
+    @Bean
+    public DatabaseIdProvider databaseIdProvider() {
+        Properties properties = new Properties();
+        properties.setProperty("MySQL", "mysql");
+        properties.setProperty("MariaDB", "mysql");
+        properties.setProperty("H2", "h2");
+        VendorDatabaseIdProvider databaseIdProvider = new VendorDatabaseIdProvider();
+        databaseIdProvider.setProperties(properties);
+        return databaseIdProvider;
+    }
 }
@@ -0,0 +1,399 @@
+package org.xiaolin.redis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @author xlxing
+ * @Description 排行榜相关配置，对应application.properties中rank.*
+ * @create 2026/10/17
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rank")
+public class RankProperties {
+
+    private Click click = new Click();
+
+    private BookCache bookCache = new BookCache();
+
+    private Snapshot snapshot = new Snapshot();
+
+    private Decay decay = new Decay();
+
+    private Rolling rolling = new Rolling();
+
+    private Persist persist = new Persist();
+
+    private Retention retention = new Retention();
+
+    private Migration migration = new Migration();
+
+    private Reactive reactive = new Reactive();
+
+    private Ingest ingest = new Ingest();
+
+    private Shard shard = new Shard();
+
+    private Trending trending = new Trending();
+
+    private Unique unique = new Unique();
+
+    private Engagement engagement = new Engagement();
+
+    private Author author = new Author();
+
+    private Rebuild rebuild = new Rebuild();
+
+    private BookFilter bookFilter = new BookFilter();
+
+    @Data
+    public static class Click {
+        /**
+         * 点击写入模式
+         */
+        private ClickMode mode = ClickMode.DIRECT;
+
+        /**
+         * BUFFERED模式下缓冲区刷新间隔，单位毫秒
+         */
+        private long flushIntervalMs = 100;
+
+        /**
+         * BUFFERED模式下缓冲区最多容纳的(排行榜, 书籍)计数器个数，超过一半时在后台提前刷新，
+         * 已满时丢弃新的点击，Redis长时间不可用时内存占用不会无限增长
+         */
+        private int maxBufferedEntries = 100_000;
+
+        /**
+         * ASYNC模式下点击队列的容量
+         */
+        private int queueCapacity = 100_000;
+
+        /**
+         * ASYNC模式下队列满时的处理方式
+         */
+        private OverflowPolicy overflow = OverflowPolicy.DROP;
+
+        /**
+         * ASYNC模式下消费队列的写线程数
+         */
+        private int writerThreads = 2;
+
+        /**
+         * ASYNC模式下每个写线程一次从队列取出的点击数上限，合并为一次pipeline
+         */
+        private int drainBatchSize = 512;
+    }
+
+    @Data
+    public static class BookCache {
+        /**
+         * 本地缓存最多容纳的书籍数
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * 写入后多久过期
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Snapshot {
+        /**
+         * 是否在本地缓存排行榜前N名
+         */
+        private boolean enabled = true;
+
+        /**
+         * 快照包含的名次数N
+         */
+        private int size = 100;
+
+        /**
+         * 快照允许的最长陈旧时间，超过后回源刷新
+         */
+        private Duration ttl = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Decay {
+        /**
+         * 是否同时维护按时间指数衰减的热度排行榜
+         */
+        private boolean enabled = false;
+
+        /**
+         * 半衰期，一次点击的贡献每经过一个半衰期减半
+         */
+        private Duration halfLife = Duration.ofHours(6);
+    }
+
+    @Data
+    public static class Rolling {
+        /**
+         * 滚动窗口长度，单位小时
+         */
+        private List<Integer> windows = List.of(24, 168);
+
+        /**
+         * 小时排行榜关闭后需要保留的小时数，窗口前进时要减去移出窗口的小时桶。
+         * 取最长窗口再加两小时余量；推进落后更多时移出的小时桶已过期，滚动窗口从保留的小时桶重建
+         */
+        public int hourRetention() {
+            return windows.stream().mapToInt(Integer::intValue).max().orElse(0) + 2;
+        }
+    }
+
+    @Data
+    public static class Persist {
+        /**
+         * 每次ZSCAN取回以及每批UPDATE的书籍数
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * 是否记录有过点击的书籍，并定时只持久化这些书籍
+         */
+        private boolean dirtyEnabled = true;
+
+        /**
+         * 增量持久化的间隔，单位毫秒
+         */
+        private long dirtyIntervalMs = 300_000;
+    }
+
+    @Data
+    public static class Retention {
+        /**
+         * 日排行榜从当天零点起保留多久
+         */
+        private Duration day = Duration.ofDays(2);
+
+        /**
+         * Smooth排行榜从当天02:01起保留多久
+         */
+        private Duration smooth = Duration.ofDays(2);
+
+        /**
+         * 独立读者的HyperLogLog和排行榜从当天零点起保留多久
+         */
+        private Duration unique = Duration.ofDays(2);
+    }
+
+    @Data
+    public static class Migration {
+        /**
+         * 启动时把旧编码的排行榜成员改写为十进制书籍主键
+         */
+        private boolean memberEncoding = false;
+    }
+
+    @Data
+    public static class Reactive {
+        /**
+         * 响应式接口中执行数据库查询的线程数上限
+         */
+        private int dbThreads = 16;
+
+        /**
+         * 数据库线程全忙时排队的任务数上限，超出后请求直接失败
+         */
+        private int dbQueueSize = 10000;
+    }
+
+    @Data
+    public static class Ingest {
+        /**
+         * 批量导入点击时，合并后每积累多少条命令写入一次Redis
+         */
+        private int chunkSize = 200_000;
+    }
+
+    @Data
+    public static class Shard {
+        /**
+         * 总排行榜按书籍主键拆分为多个子key
+         */
+        private boolean enabled = false;
+
+        /**
+         * 分片数
+         */
+        private int count = 16;
+
+        /**
+         * 大于0时，启动时把总排行榜从该分片数(1表示未分片)的排布迁移到当前排布
+         */
+        private int reshardFrom = 0;
+
+        /**
+         * reshard-from大于0时检查旧排布的间隔，单位毫秒。滚动发布期间旧版本实例仍在写旧分片
+         */
+        private long reshardCheckIntervalMs = 60_000;
+    }
+
+    @Data
+    public static class Trending {
+        /**
+         * 在本地统计点击最多的书籍
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最多跟踪的书籍数，决定内存占用和误差
+         */
+        private int capacity = 1024;
+
+        /**
+         * 按书籍主键拆分的统计分段数，每段独立加锁
+         */
+        private int stripes = 16;
+
+        /**
+         * 计数的半衰期
+         */
+        private Duration halfLife = Duration.ofMinutes(10);
+
+        /**
+         * 通过Redis与其他实例交换统计结果，合并为全局的估计
+         */
+        private boolean exchange = false;
+
+        /**
+         * 衰减与交换的间隔，单位毫秒
+         */
+        private long exchangeIntervalMs = 10_000;
+    }
+
+    @Data
+    public static class Unique {
+        /**
+         * 点击带有读者标识时统计每本书每天的独立读者
+         */
+        private boolean enabled = true;
+
+        /**
+         * 把HyperLogLog的基数物化到排行榜的间隔，单位毫秒
+         */
+        private long materializeIntervalMs = 60_000;
+
+        /**
+         * 物化时每次SSCAN并PFCOUNT的书籍数
+         */
+        private int chunkSize = 1000;
+    }
+
+    @Data
+    public static class Engagement {
+        /**
+         * 定时合并当天的综合排行榜
+         */
+        private boolean enabled = true;
+
+        /**
+         * 点击的权重
+         */
+        private double clickWeight = 1;
+
+        /**
+         * 点赞的权重
+         */
+        private double likeWeight = 5;
+
+        /**
+         * 评论的权重
+         */
+        private double commentWeight = 10;
+
+        /**
+         * 重新合并综合排行榜的间隔，单位毫秒
+         */
+        private long refreshIntervalMs = 60_000;
+    }
+
+    @Data
+    public static class Author {
+        /**
+         * 点击时同时更新作者的书籍排行榜和作者排行榜
+         */
+        private boolean enabled = true;
+
+        /**
+         * 书籍主键 -> 作者主键本地缓存的容量
+         */
+        private long cacheSize = 200_000;
+    }
+
+    @Data
+    public static class Rebuild {
+        /**
+         * 启动时总排行榜为空则从MySQL的click_num重建
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每个pipeline写入的书籍数
+         */
+        private int batchSize = 10_000;
+
+        /**
+         * 重建期间持久化暂停标记的过期时间，每写入一批刷新一次，实例中途退出时标记自行消失
+         */
+        private Duration fenceTtl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class BookFilter {
+        /**
+         * 查询书籍前用布隆过滤器排除一定不存在的主键
+         */
+        private boolean enabled = true;
+
+        /**
+         * 误判率，即不存在的主键仍然查询数据库的比例
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * 按当前书籍数的多少倍分配容量，为两次重建之间新增的书籍留出余量
+         */
+        private double headroom = 1.5;
+
+        /**
+         * 重建间隔，重建后已删除的书籍不再通过过滤器
+         */
+        private long rebuildIntervalMs = 3_600_000;
+    }
+
+    public enum ClickMode {
+        /**
+         * 每次点击直接以pipeline写入Redis
+         */
+        DIRECT,
+        /**
+         * 点击先在本地合并，定时批量写入Redis
+         */
+        BUFFERED,
+        /**
+         * 点击放入有界队列后立即返回，由写线程通过Lettuce异步接口批量写入Redis
+         */
+        ASYNC
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * 丢弃并计数
+         */
+        DROP,
+        /**
+         * 阻塞请求线程直到队列有空位
+         */
+        BLOCK
+    }
+}
@@ -0,0 +1,26 @@
+package org.xiaolin.redis.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * @author xlxing
+ * @Description 响应式接口配置，spring.main.web-application-type=reactive时生效
+ * @create 2026/10/17
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    /**
+     * 有界的数据库线程池，JDBC查询不占用事件循环线程
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler bookDbScheduler(RankProperties rankProperties) {
+        RankProperties.Reactive reactive = rankProperties.getReactive();
+        return Schedulers.newBoundedElastic(reactive.getDbThreads(), reactive.getDbQueueSize(), "book-db");
+    }
+}
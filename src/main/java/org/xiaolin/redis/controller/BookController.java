@@ -5,13 +5,24 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.xiaolin.redis.common.req.BookAddDto;
 import org.xiaolin.redis.common.req.BookUpdateDto;
+import org.xiaolin.redis.common.resp.ClickIngestResult;
+import org.xiaolin.redis.common.resp.AuthorRank;
+import org.xiaolin.redis.common.resp.BookRank;
 import org.xiaolin.redis.common.resp.R;
+import org.xiaolin.redis.common.resp.SeekPage;
+import org.xiaolin.redis.common.resp.TrendingBook;
 import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.service.AuthorRankService;
 import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.service.ClickIngestService;
+import org.xiaolin.redis.service.EngagementService;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -21,12 +32,17 @@ import java.util.List;
  */
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 @RequestMapping("/book")
 @Tag(name = "书籍管理", description = "书籍信息的增删改查以及查阅排行榜")
 public class BookController {
     private final BookService bookService;
 
+    private final ClickIngestService clickIngestService;
+
+    private final AuthorRankService authorRankService;
+
     /**
      * 根据书籍id查看书籍信息
      * @param bookId 书籍主键
@@ -34,8 +50,39 @@ public class BookController {
      */
     @Operation(summary = "查阅书籍信息")
     @GetMapping("/{id}")
-    public R<Book> one(@PathVariable("id") Long bookId) {
-        return bookService.getBook(bookId);
+    public R<Book> one(@PathVariable("id") Long bookId, @RequestParam(required = false) String readerId) {
+        return bookService.getBook(bookId, readerId);
+    }
+
+    @Operation(summary = "点赞")
+    @PostMapping("/{id}/like")
+    public R<Void> like(@PathVariable("id") Long bookId) {
+        return bookService.engageBook(bookId, EngagementService.Type.LIKE);
+    }
+
+    @Operation(summary = "评论")
+    @PostMapping("/{id}/comment")
+    public R<Void> comment(@PathVariable("id") Long bookId) {
+        return bookService.engageBook(bookId, EngagementService.Type.COMMENT);
+    }
+
+    @Operation(summary = "查询书籍在排行榜中的名次及前后各k名")
+    @GetMapping("/{id}/rank")
+    public R<BookRank> rankAround(@PathVariable("id") Long bookId, @RequestParam(defaultValue = "total") String board,
+                                  @RequestParam(defaultValue = "5") Integer k) {
+        return bookService.rankAround(bookId, board, k);
+    }
+
+    @Operation(summary = "批量导入点击，NDJSON格式")
+    @PostMapping(value = "/clicks", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public R<ClickIngestResult> ingestNdjson(InputStream body) {
+        return R.ok(clickIngestService.ingestNdjson(body));
+    }
+
+    @Operation(summary = "批量导入点击，二进制格式")
+    @PostMapping(value = "/clicks", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public R<ClickIngestResult> ingestBinary(InputStream body) {
+        return R.ok(clickIngestService.ingestBinary(body));
     }
 
     @Operation(summary = "分页查询书籍")
@@ -44,6 +91,14 @@ public class BookController {
         return bookService.getBookPage(page, pageSize);
     }
 
+    @Operation(summary = "按更新时间倒序的游标分页，不统计总数")
+    @GetMapping("/seek")
+    public R<SeekPage<Book>> seekBooks(@RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "20") int pageSize,
+                                   @RequestParam(defaultValue = "0") int skip) {
+        return bookService.getBookSeek(cursor, pageSize, skip);
+    }
+
     @Operation(summary = "上架新书")
     @PostMapping
     public R<Void> addOne(@RequestBody BookAddDto bookAddDto) {
@@ -74,6 +129,50 @@ public class BookController {
         return bookService.rankSmoothBook(start, end);
     }
 
+    @Operation(summary = "查询当天独立读者排行榜，按分钟级延迟物化")
+    @GetMapping("/rank/unique")
+    public R<List<Book>> rankUniqueRange(@RequestParam Integer start, @RequestParam Integer end) {
+        return bookService.rankUniqueBook(start, end);
+    }
+
+    @Operation(summary = "查询当天点击、点赞、评论按权重合并的综合排行榜")
+    @GetMapping("/rank/engagement")
+    public R<List<Book>> rankEngagementRange(@RequestParam Integer start, @RequestParam Integer end) {
+        return bookService.rankEngagementBook(start, end);
+    }
+
+    @Operation(summary = "查询作者的书籍排行榜")
+    @GetMapping("/rank/author/{authorId}")
+    public R<List<Book>> rankAuthorRange(@PathVariable("authorId") Long authorId,
+                                         @RequestParam Integer start, @RequestParam Integer end) {
+        return bookService.rankAuthorBook(authorId, start, end);
+    }
+
+    @Operation(summary = "查询作者排行榜，按全部书籍的总点击量排列")
+    @GetMapping("/rank/authors")
+    public R<List<AuthorRank>> rankAuthors(@RequestParam Integer start, @RequestParam Integer end) {
+        return R.ok(authorRankService.rankAuthors(start, end));
+    }
+
+    @Operation(summary = "查询近似的热门书籍，只读本地统计，不访问Redis")
+    @GetMapping("/rank/trending")
+    public R<List<TrendingBook>> rankTrending(@RequestParam(defaultValue = "10") Integer k) {
+        return bookService.rankTrendingBook(k);
+    }
+
+    @Operation(summary = "查询指数衰减热度排行榜")
+    @GetMapping("/rank/decay")
+    public R<List<Book>> rankDecayRange(@RequestParam Integer start, @RequestParam Integer end) {
+        return bookService.rankDecayBook(start, end);
+    }
+
+    @Operation(summary = "查询最近N小时滚动窗口排行榜")
+    @GetMapping("/rank/rolling/{hours}")
+    public R<List<Book>> rankRollingRange(@PathVariable("hours") Integer hours,
+                                          @RequestParam Integer start, @RequestParam Integer end) {
+        return bookService.rankRollingBook(hours, start, end);
+    }
+
     @Operation(summary = "查询总排行榜")
     @GetMapping("/rank")
     public R<List<Book>> rankRange(@RequestParam Integer start, @RequestParam Integer end) {
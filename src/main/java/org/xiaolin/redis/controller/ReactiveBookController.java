@@ -0,0 +1,222 @@
+package org.xiaolin.redis.controller;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.common.req.BookAddDto;
+import org.xiaolin.redis.common.req.BookUpdateDto;
+import org.xiaolin.redis.common.resp.ClickIngestResult;
+import org.xiaolin.redis.common.resp.AuthorRank;
+import org.xiaolin.redis.common.resp.BookRank;
+import org.xiaolin.redis.common.resp.R;
+import org.xiaolin.redis.common.resp.SeekPage;
+import org.xiaolin.redis.common.resp.TrendingBook;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.service.AuthorRankService;
+import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.service.ClickIngestService;
+import org.xiaolin.redis.service.EngagementService;
+import org.xiaolin.redis.service.ReactiveBookService;
+import org.xiaolin.redis.service.RollingRankService;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 与BookController接口相同的响应式版本，spring.main.web-application-type=reactive时替代BookController。
+ * 查阅与排行榜接口不阻塞事件循环线程，增删改等管理接口在数据库线程池中调用BookService
+ * @author xlxing
+ * @Description 响应式书籍控制器
+ * @create 2026/10/17
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@RequestMapping("/book")
+@Tag(name = "书籍管理", description = "书籍信息的增删改查以及查阅排行榜")
+public class ReactiveBookController {
+    private final ReactiveBookService reactiveBookService;
+
+    private final BookService bookService;
+
+    private final ClickIngestService clickIngestService;
+
+    private final RollingRankService rollingRankService;
+
+    private final AuthorRankService authorRankService;
+
+    @Operation(summary = "查阅书籍信息")
+    @GetMapping("/{id}")
+    public Mono<R<Book>> one(@PathVariable("id") Long bookId, @RequestParam(required = false) String readerId) {
+        return reactiveBookService.getBook(bookId, readerId);
+    }
+
+    @Operation(summary = "点赞")
+    @PostMapping("/{id}/like")
+    public Mono<R<Void>> like(@PathVariable("id") Long bookId) {
+        return reactiveBookService.engageBook(bookId, EngagementService.Type.LIKE);
+    }
+
+    @Operation(summary = "评论")
+    @PostMapping("/{id}/comment")
+    public Mono<R<Void>> comment(@PathVariable("id") Long bookId) {
+        return reactiveBookService.engageBook(bookId, EngagementService.Type.COMMENT);
+    }
+
+    @Operation(summary = "查询书籍在排行榜中的名次及前后各k名")
+    @GetMapping("/{id}/rank")
+    public Mono<R<BookRank>> rankAround(@PathVariable("id") Long bookId, @RequestParam(defaultValue = "total") String board,
+                                        @RequestParam(defaultValue = "5") Integer k) {
+        return reactiveBookService.blocking(() -> bookService.rankAround(bookId, board, k));
+    }
+
+    @Operation(summary = "批量导入点击，NDJSON格式")
+    @PostMapping(value = "/clicks", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<R<ClickIngestResult>> ingestNdjson(ServerHttpRequest request) {
+        return ingest(request, clickIngestService::ingestNdjson);
+    }
+
+    @Operation(summary = "批量导入点击，二进制格式")
+    @PostMapping(value = "/clicks", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Mono<R<ClickIngestResult>> ingestBinary(ServerHttpRequest request) {
+        return ingest(request, clickIngestService::ingestBinary);
+    }
+
+    /**
+     * 请求体以管道流交给数据库线程池中的导入逻辑，边接收边解析，不在内存中缓存整个请求体。
+     * 写管道可能阻塞，不能在事件循环线程上进行
+     */
+    private Mono<R<ClickIngestResult>> ingest(ServerHttpRequest request, Function<InputStream, ClickIngestResult> ingestion) {
+        return reactiveBookService.blocking(() -> {
+            PipedOutputStream out = new PipedOutputStream();
+            try (InputStream body = new PipedInputStream(out, 64 * 1024)) {
+                DataBufferUtils.write(request.getBody().publishOn(Schedulers.boundedElastic()), out)
+                        .doFinally(signal -> closeQuietly(out))
+                        .subscribe(DataBufferUtils.releaseConsumer(), e -> { });
+                return R.ok(ingestion.apply(body));
+            }
+        });
+    }
+
+    private static void closeQuietly(OutputStream out) {
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // 读端已关闭
+        }
+    }
+
+    @Operation(summary = "分页查询书籍")
+    @GetMapping("/page")
+    public Mono<R<Page<Book>>> pageBooks(@RequestParam int page, @RequestParam int pageSize) {
+        return reactiveBookService.blocking(() -> bookService.getBookPage(page, pageSize));
+    }
+
+    @Operation(summary = "按更新时间倒序的游标分页，不统计总数")
+    @GetMapping("/seek")
+    public Mono<R<SeekPage<Book>>> seekBooks(@RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "20") int pageSize,
+                                         @RequestParam(defaultValue = "0") int skip) {
+        return reactiveBookService.blocking(() -> bookService.getBookSeek(cursor, pageSize, skip));
+    }
+
+    @Operation(summary = "上架新书")
+    @PostMapping
+    public Mono<R<Void>> addOne(@RequestBody BookAddDto bookAddDto) {
+        return reactiveBookService.blocking(() -> bookService.addBook(bookAddDto));
+    }
+
+    @Operation(summary = "更新书籍")
+    @PutMapping()
+    public Mono<R<Void>> updateOne(@RequestBody BookUpdateDto bookUpdateDto) {
+        return reactiveBookService.blocking(() -> bookService.updateBook(bookUpdateDto));
+    }
+
+    @Operation(summary = "查询当天排行榜")
+    @GetMapping("/rank/day")
+    public Mono<R<List<Book>>> rankDayRange(@RequestParam Integer start, @RequestParam Integer end) {
+        return reactiveBookService.rank(start, end, RedisConstant.getSortDayKey());
+    }
+
+    @Operation(summary = "查询时排行榜")
+    @GetMapping("/rank/hour")
+    public Mono<R<List<Book>>> rankHourRange(@RequestParam Integer start, @RequestParam Integer end) {
+        return reactiveBookService.rank(start, end, RedisConstant.getSortHourKey());
+    }
+
+    @Operation(summary = "查询渐进式排行榜")
+    @GetMapping("/rank/smooth")
+    public Mono<R<List<Book>>> rankSmoothRange(@RequestParam Integer start, @RequestParam Integer end) {
+        return reactiveBookService.rank(start, end, RedisConstant.getSmoothSortKey());
+    }
+
+    @Operation(summary = "查询当天独立读者排行榜，按分钟级延迟物化")
+    @GetMapping("/rank/unique")
+    public Mono<R<List<Book>>> rankUniqueRange(@RequestParam Integer start, @RequestParam Integer end) {
+        return reactiveBookService.rank(start, end, RedisConstant.getUniqueSortKey());
+    }
+
+    @Operation(summary = "查询当天点击、点赞、评论按权重合并的综合排行榜")
+    @GetMapping("/rank/engagement")
+    public Mono<R<List<Book>>> rankEngagementRange(@RequestParam Integer start, @RequestParam Integer end) {
+        return reactiveBookService.rank(start, end, RedisConstant.getEngagementSortKey());
+    }
+
+    @Operation(summary = "查询作者的书籍排行榜")
+    @GetMapping("/rank/author/{authorId}")
+    public Mono<R<List<Book>>> rankAuthorRange(@PathVariable("authorId") Long authorId,
+                                               @RequestParam Integer start, @RequestParam Integer end) {
+        return reactiveBookService.rank(start, end, RedisConstant.getAuthorSortKey(authorId));
+    }
+
+    @Operation(summary = "查询作者排行榜，按全部书籍的总点击量排列")
+    @GetMapping("/rank/authors")
+    public Mono<R<List<AuthorRank>>> rankAuthors(@RequestParam Integer start, @RequestParam Integer end) {
+        return reactiveBookService.blocking(() -> R.ok(authorRankService.rankAuthors(start, end)));
+    }
+
+    @Operation(summary = "查询近似的热门书籍，只读本地统计，不访问Redis")
+    @GetMapping("/rank/trending")
+    public Mono<R<List<TrendingBook>>> rankTrending(@RequestParam(defaultValue = "10") Integer k) {
+        return reactiveBookService.blocking(() -> bookService.rankTrendingBook(k));
+    }
+
+    @Operation(summary = "查询指数衰减热度排行榜")
+    @GetMapping("/rank/decay")
+    public Mono<R<List<Book>>> rankDecayRange(@RequestParam Integer start, @RequestParam Integer end) {
+        return reactiveBookService.rank(start, end, RedisConstant.getDecaySortKey());
+    }
+
+    @Operation(summary = "查询最近N小时滚动窗口排行榜")
+    @GetMapping("/rank/rolling/{hours}")
+    public Mono<R<List<Book>>> rankRollingRange(@PathVariable("hours") Integer hours,
+                                                @RequestParam Integer start, @RequestParam Integer end) {
+        return Mono.defer(() -> reactiveBookService.rank(start, end, rollingRankService.rollingSortKey(hours)));
+    }
+
+    @Operation(summary = "查询总排行榜")
+    @GetMapping("/rank")
+    public Mono<R<List<Book>>> rankRange(@RequestParam Integer start, @RequestParam Integer end) {
+        return reactiveBookService.rank(start, end, RedisConstant.getSortKey());
+    }
+
+    @Operation(summary = "删除书籍")
+    @DeleteMapping("/{id}")
+    public Mono<R<Void>> deleteOne(@PathVariable("id") Long bookId) {
+        return reactiveBookService.blocking(() -> bookService.deleteBook(bookId));
+    }
+}
@@ -1,6 +1,8 @@
 package org.xiaolin.redis.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Repository;
 import org.xiaolin.redis.domain.Book;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
@@ -14,6 +16,26 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 @Mapper
 public interface BookMapper extends BaseMapper<Book> {
 
+    /**
+     * 只更新点击量，不读取也不覆盖其他字段
+     * @param id 书籍主键
+     * @param clickNum 点击量
+     * @return 影响行数
+     */
+    int updateClickNum(@Param("id") Long id, @Param("clickNum") Integer clickNum);
+
+    /**
+     * 按主键顺序流式读取有点击的书籍，只返回id、author_id、click_num，
+     * 结果集逐行从服务端读取，不整表加载到内存，必须在事务中遍历
+     * @return 游标
+     */
+    Cursor<Book> scanClickNums();
+
+    /**
+     * 流式读取全部书籍主键，必须在事务中遍历
+     * @return 游标
+     */
+    Cursor<Long> scanIds();
 }
 
 
@@ -0,0 +1,248 @@
+package org.xiaolin.redis.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.utils.RedisBatch;
+import org.xiaolin.redis.utils.ShardedBoard;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 排行榜相关指标，通过/actuator/prometheus暴露：
+ * rank.redis{op,board}、rank.mysql{op}、rank.job{job}耗时，带百分位直方图。
+ * 点击等批量写入一次跨越多个排行榜，rank.redis{op=increment}的board标签为批次类型(click、buffer、queue、engagement、ingest、reshard)，
+ * 各排行榜的写入次数另见rank.redis.increments{board}；
+ * rank.board.size{board}排行榜成员数、rank.persist.lag持久化延迟、rank.persist.pending待持久化书籍数；
+ * rank.degraded{op}因Redis不可用而降级处理的请求数
+ * @author xlxing
+ * @Description 排行榜指标
+ * @create 2026/10/17
+ */
+@Slf4j
+@Component
+public class RankMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RankProperties rankProperties;
+
+    private final ShardedBoard shardedBoard;
+
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Counter> increments = new ConcurrentHashMap<>();
+
+    /**
+     * 排行榜成员数定时采样，抓取指标时不访问Redis
+     */
+    private final ConcurrentHashMap<String, AtomicLong> boardSizes = new ConcurrentHashMap<>();
+
+    private final AtomicLong pendingBooks = new AtomicLong();
+
+    private final AtomicLong lastPersisted = new AtomicLong(System.currentTimeMillis());
+
+    public RankMetrics(MeterRegistry meterRegistry, StringRedisTemplate stringRedisTemplate,
+                       RankProperties rankProperties, ShardedBoard shardedBoard) {
+        this.meterRegistry = meterRegistry;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.rankProperties = rankProperties;
+        this.shardedBoard = shardedBoard;
+        Gauge.builder("rank.persist.lag", lastPersisted, last -> (System.currentTimeMillis() - last.get()) / 1000.0)
+                .description("距离上次点击量持久化完成的时间")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("rank.persist.pending", pendingBooks, AtomicLong::get)
+                .description("有过点击、尚未持久化的书籍数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录一次排行榜的Redis操作
+     * @param op increment、range、delete
+     * @param board 排行榜类型，见{@link #board(String)}
+     */
+    public <T> T redis(String op, String board, Supplier<T> supplier) {
+        return timer("rank.redis", "op", op, "board", board).record(supplier);
+    }
+
+    /**
+     * 记录一次响应式的排行榜Redis操作，从订阅开始计时
+     */
+    public <T> Mono<T> redis(String op, String board, Mono<T> mono) {
+        Timer timer = timer("rank.redis", "op", op, "board", board);
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono.doFinally(signal -> sample.stop(timer));
+        });
+    }
+
+    /**
+     * 记录一次异步的排行榜Redis操作，到返回的CompletableFuture完成为止
+     */
+    public <T> CompletableFuture<T> redisAsync(String op, String board, Supplier<CompletableFuture<T>> supplier) {
+        Timer timer = timer("rank.redis", "op", op, "board", board);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return supplier.get().whenComplete((result, e) -> sample.stop(timer));
+    }
+
+    /**
+     * 按排行榜类型累计一批命令中的ZINCRBY和对数累加次数
+     */
+    public void increments(RedisBatch batch) {
+        Map<String, Long> counts = new HashMap<>();
+        for (RedisBatch.Op op : batch.getOps()) {
+            if (op instanceof RedisBatch.IncrementScore incr) {
+                counts.merge(board(incr.key()), 1L, Long::sum);
+            } else if (op instanceof RedisBatch.LogAddScore logAdd) {
+                counts.merge(board(logAdd.key()), 1L, Long::sum);
+            }
+        }
+        counts.forEach((board, count) -> increments.computeIfAbsent(board, b -> Counter.builder("rank.redis.increments")
+                .description("排行榜的分数写入次数")
+                .tag("board", b)
+                .register(meterRegistry)).increment(count));
+    }
+
+    /**
+     * 记录一次数据库操作
+     * @param op select_by_id、select_batch、update_click_num
+     */
+    public <T> T mysql(String op, Supplier<T> supplier) {
+        return timer("rank.mysql", "op", op).record(supplier);
+    }
+
+    /**
+     * 记录一次定时任务
+     */
+    public void job(String job, Runnable runnable) {
+        timer("rank.job", "job", job).record(runnable);
+    }
+
+    /**
+     * Redis不可用时降级处理了一次请求
+     * @param op click、range
+     */
+    public void degraded(String op) {
+        Counter.builder("rank.degraded")
+                .tag("op", op)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 点击量持久化完成
+     */
+    public void markPersisted() {
+        lastPersisted.set(System.currentTimeMillis());
+    }
+
+    /**
+     * 排行榜key对应的类型，作为指标的board标签，避免按小时、日变化的key撑爆标签基数
+     */
+    public static String board(String key) {
+        if (key.equals(RedisConstant.SORT_KEY) || key.startsWith(RedisConstant.SORT_KEY + ":{")) {
+            return "total";
+        } else if (key.startsWith(RedisConstant.SORT_HOUR_PREFIX)) {
+            return "hour";
+        } else if (key.startsWith(RedisConstant.SORT_DAY_PREFIX)) {
+            return "day";
+        } else if (key.startsWith(RedisConstant.ROLLING_SORT_PREFIX)) {
+            return "rolling";
+        } else if (key.equals(RedisConstant.DECAY_SORT_KEY)) {
+            return "decay";
+        } else if (key.startsWith(RedisConstant.SMOOTH_SORT_KEY)) {
+            return "smooth";
+        } else if (key.startsWith(RedisConstant.UNIQUE_SORT_PREFIX)) {
+            return "unique";
+        } else if (key.startsWith(RedisConstant.AUTHOR_SORT_PREFIX)) {
+            return "author";
+        } else if (key.equals(RedisConstant.AUTHORS_SORT_KEY)) {
+            return "authors";
+        } else if (key.startsWith(RedisConstant.ENGAGEMENT_SORT_PREFIX)) {
+            return "engagement";
+        } else if (key.startsWith(RedisConstant.LIKE_DAY_PREFIX)) {
+            return "like";
+        } else if (key.startsWith(RedisConstant.COMMENT_DAY_PREFIX)) {
+            return "comment";
+        } else if (key.equals(RedisConstant.DIRTY_SET_KEY)) {
+            return "dirty";
+        }
+        return "other";
+    }
+
+    /**
+     * 每15秒用一次pipeline采样各排行榜的成员数
+     */
+    @Scheduled(fixedDelay = 15000, initialDelay = 15000)
+    public void sampleBoardSizes() {
+        // 一个排行榜可能对应多个分片key，成员数为各分片之和
+        Map<String, List<String>> boards = new LinkedHashMap<>();
+        boards.put("total", shardedBoard.shardKeys(RedisConstant.getSortKey()));
+        boards.put("hour", List.of(RedisConstant.getSortHourKey()));
+        boards.put("day", List.of(RedisConstant.getSortDayKey()));
+        boards.put("smooth", List.of(RedisConstant.getSmoothSortKey()));
+        boards.put("decay", List.of(RedisConstant.getDecaySortKey()));
+        boards.put("unique", List.of(RedisConstant.getUniqueSortKey()));
+        boards.put("engagement", List.of(RedisConstant.getEngagementSortKey()));
+        boards.put("authors", List.of(RedisConstant.AUTHORS_SORT_KEY));
+        rankProperties.getRolling().getWindows()
+                .forEach(hours -> boards.put("rolling_" + hours + "h", List.of(RedisConstant.getRollingSortKey(hours))));
+        try {
+            List<Object> sizes = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                boards.values().forEach(keys -> keys.forEach(key ->
+                        connection.zSetCommands().zCard(key.getBytes(StandardCharsets.UTF_8))));
+                connection.setCommands().sCard(RedisConstant.DIRTY_SET_KEY.getBytes(StandardCharsets.UTF_8));
+                return null;
+            });
+            int i = 0;
+            for (Map.Entry<String, List<String>> board : boards.entrySet()) {
+                long size = 0;
+                for (int j = 0; j < board.getValue().size(); j++) {
+                    size += sizes.get(i++) instanceof Long shard ? shard : 0;
+                }
+                boardSize(board.getKey()).set(size);
+            }
+            pendingBooks.set(sizes.get(i) instanceof Long size ? size : 0);
+        } catch (RuntimeException e) {
+            log.warn("采样排行榜成员数失败", e);
+        }
+    }
+
+    private AtomicLong boardSize(String board) {
+        return boardSizes.computeIfAbsent(board, b -> {
+            AtomicLong size = new AtomicLong();
+            Gauge.builder("rank.board.size", size, AtomicLong::get)
+                    .description("排行榜成员数")
+                    .tag("board", b)
+                    .register(meterRegistry);
+            return size;
+        });
+    }
+
+    private Timer timer(String name, String... tags) {
+        return timers.computeIfAbsent(name + String.join(",", tags), k -> Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,36 @@
+package org.xiaolin.redis.service;
+
+import org.xiaolin.redis.common.resp.AuthorRank;
+
+import java.util.List;
+
+/**
+ * @author xlxing
+ * @Description 作者的书籍排行榜与作者排行榜
+ * @create 2026/10/17
+ */
+public interface AuthorRankService {
+
+    /**
+     * 书籍换了作者，把它的点击量从原作者移到新作者，原子执行
+     * @param bookId 书籍主键
+     * @param oldAuthorId 原作者主键
+     * @param newAuthorId 新作者主键
+     */
+    void move(Long bookId, Long oldAuthorId, Long newAuthorId);
+
+    /**
+     * 书籍被删除，从作者的书籍排行榜移除，并从作者的总点击量中减去
+     * @param bookId 书籍主键
+     * @param authorId 作者主键
+     */
+    void remove(Long bookId, Long authorId);
+
+    /**
+     * 作者排行榜区间
+     * @param start 开始索引
+     * @param end 结束索引
+     * @return 按总点击量从高到低排列
+     */
+    List<AuthorRank> rankAuthors(Integer start, Integer end);
+}
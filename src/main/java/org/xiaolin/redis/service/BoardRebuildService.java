@@ -0,0 +1,17 @@
+package org.xiaolin.redis.service;
+
+/**
+ * @author xlxing
+ * @Description 从MySQL重建Redis排行榜
+ * @create 2026/10/17
+ */
+public interface BoardRebuildService {
+
+    /**
+     * 按主键顺序流式读取book表，把click_num批量写回总排行榜，作者排行榜为空时一并重建。
+     * 历史点击量与重建期间到达的点击相加，不会被覆盖，因此只应在总排行榜为空时调用。
+     * 重建期间暂停所有实例的点击量持久化，其他实例正在重建时直接返回
+     * @return 写入的书籍数，其他实例正在重建时为0
+     */
+    long rebuild();
+}
@@ -3,7 +3,10 @@ package org.xiaolin.redis.service;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.xiaolin.redis.common.req.BookAddDto;
 import org.xiaolin.redis.common.req.BookUpdateDto;
+import org.xiaolin.redis.common.resp.BookRank;
 import org.xiaolin.redis.common.resp.R;
+import org.xiaolin.redis.common.resp.SeekPage;
+import org.xiaolin.redis.common.resp.TrendingBook;
 import org.xiaolin.redis.domain.Book;
 import com.baomidou.mybatisplus.extension.service.IService;
 
@@ -44,6 +47,22 @@ public interface BookService extends IService<Book> {
      */
     R<Book> getBook(Long bookId);
 
+    /**
+     * 查看数据信息，带有读者标识时计入当天的独立读者
+     * @param bookId 书籍主键
+     * @param readerId 用户或会话标识，可以为空
+     * @return 书籍相关信息
+     */
+    R<Book> getBook(Long bookId, String readerId);
+
+    /**
+     * 点赞或评论，计入当天的分桶，参与综合排行榜
+     * @param bookId 书籍主键
+     * @param type 互动类型
+     * @return 记录结果
+     */
+    R<Void> engageBook(Long bookId, EngagementService.Type type);
+
     /**
      * 分页获取书籍列表
      * @param page 页数
@@ -51,6 +70,16 @@ public interface BookService extends IService<Book> {
      * @return 分页查询结果
      */
     R<Page<Book>> getBookPage(int page, int pageSize);
+
+    /**
+     * 按(update_time, id)倒序的游标分页，不执行COUNT，也不扫描OFFSET之前的行，
+     * 依赖索引idx_update_time_id，任意一页的代价与第一页相同
+     * @param cursor 上一页返回的游标，为空时从第一页开始
+     * @param pageSize 每页数量
+     * @param skip 从游标处先跳过的记录数，用于一次向后翻几页，代价与跳过的行数成正比
+     * @return 本页书籍与下一页的游标
+     */
+    R<SeekPage<Book>> getBookSeek(String cursor, int pageSize, int skip);
     /**
      *
      * @param start 开始索引
@@ -85,6 +114,86 @@ public interface BookService extends IService<Book> {
      */
     R<List<Book>> rankSmoothBook(Integer start, Integer end);
 
+    /**
+     * 指数衰减热度排行榜
+     * @param start 开始索引
+     * @param end 结束索引
+     * @return 热度排行榜书籍列表
+     */
+    R<List<Book>> rankDecayBook(Integer start, Integer end);
+
+    /**
+     * 最近N小时滚动窗口排行榜
+     * @param hours 窗口长度，单位小时
+     * @param start 开始索引
+     * @param end 结束索引
+     * @return 滚动窗口排行榜书籍列表
+     */
+    R<List<Book>> rankRollingBook(Integer hours, Integer start, Integer end);
+
+    /**
+     * 按排行榜key查询区间，前N名内的区间读本地快照
+     * @param start 开始索引
+     * @param end 结束索引
+     * @param sortKey 排行榜key
+     * @return 排行榜书籍列表
+     */
+    R<List<Book>> rankByKey(Integer start, Integer end, String sortKey);
+
+    /**
+     * @param start 开始索引
+     * @param end 结束索引
+     * @return 当天独立读者排行榜书籍列表
+     */
+    R<List<Book>> rankUniqueBook(Integer start, Integer end);
+
+    /**
+     * @param start 开始索引
+     * @param end 结束索引
+     * @return 当天点击、点赞、评论按权重合并的综合排行榜书籍列表
+     */
+    R<List<Book>> rankEngagementBook(Integer start, Integer end);
+
+    /**
+     * @param authorId 作者主键
+     * @param start 开始索引
+     * @param end 结束索引
+     * @return 该作者的书籍按总点击量排列
+     */
+    R<List<Book>> rankAuthorBook(Long authorId, Integer start, Integer end);
+
+    /**
+     * 排行榜名称对应的key
+     * @param board total、hour、day、smooth、decay、unique、engagement，或rolling_24h这样的滚动窗口、author_1这样的作者
+     * @return 排行榜key，未知的名称抛出异常
+     */
+    String sortKey(String board);
+
+    /**
+     * 书籍在排行榜中的名次、分数及前后各k名，一次Redis往返，相邻书籍合并为一次数据库查询
+     * @param bookId 书籍主键
+     * @param board 排行榜名称，见{@link #sortKey(String)}
+     * @param k 前后各取几名
+     * @return 名次与相邻书籍，书籍不在排行榜中时抛出异常
+     */
+    R<BookRank> rankAround(Long bookId, String board, Integer k);
+
+    /**
+     * Redis不可用时的排行榜：优先返回已过期的本地快照，没有快照时返回本地统计的近似热门书籍
+     * @param start 开始索引
+     * @param end 结束索引
+     * @param sortKey 排行榜key
+     * @return 排行榜书籍列表
+     */
+    R<List<Book>> rankFallback(Integer start, Integer end, String sortKey);
+
+    /**
+     * 本地统计的近似热门书籍，不访问Redis
+     * @param k 名次
+     * @return 热门书籍及其衰减点击量的误差范围
+     */
+    R<List<TrendingBook>> rankTrendingBook(Integer k);
+
     /**
      * 定时任务，Redis信息持久化到MySQL数据库中
      */
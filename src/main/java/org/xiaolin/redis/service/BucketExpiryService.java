@@ -0,0 +1,31 @@
+package org.xiaolin.redis.service;
+
+import org.xiaolin.redis.utils.RedisBatch;
+
+/**
+ * @author xlxing
+ * @Description 按时间分桶的排行榜key(小时、日、Smooth、独立读者、点赞、评论、综合)的过期与清理
+ * @create 2026/10/17
+ */
+public interface BucketExpiryService {
+
+    /**
+     * 本实例第一次写入该key时，在同一批命令末尾追加EXPIREAT，不增加网络往返
+     * @param batch 批量命令
+     * @param key 排行榜key
+     */
+    void arm(RedisBatch batch, String key);
+
+    /**
+     * 分桶key的过期时间，由key中的时间推算
+     * @param key 排行榜key
+     * @return 过期时间的epoch秒，不是分桶key时返回null
+     */
+    Long deadline(String key);
+
+    /**
+     * SCAN全部分桶key，已过保留期的用UNLINK在后台释放，没有过期时间的补上EXPIREAT。
+     * 独立读者的HyperLogLog每本书每天一个，数量太多，每次PFADD时直接带上EXPIREAT，不在这里扫描
+     */
+    void sweep();
+}
@@ -0,0 +1,27 @@
+package org.xiaolin.redis.service;
+
+import org.xiaolin.redis.common.resp.ClickIngestResult;
+
+import java.io.InputStream;
+
+/**
+ * @author xlxing
+ * @Description 离线日志中点击事件的批量导入
+ * @create 2026/10/17
+ */
+public interface ClickIngestService {
+
+    /**
+     * 流式读取NDJSON，每行一个{"bookId":1,"count":3,"timestamp":1697500000000}
+     * @param body 请求体
+     * @return 导入结果
+     */
+    ClickIngestResult ingestNdjson(InputStream body);
+
+    /**
+     * 流式读取二进制记录，每条20字节，大端序：bookId(long) count(int) timestamp(long, epoch毫秒)
+     * @param body 请求体
+     * @return 导入结果
+     */
+    ClickIngestResult ingestBinary(InputStream body);
+}
@@ -0,0 +1,20 @@
+package org.xiaolin.redis.service;
+
+/**
+ * @author xlxing
+ * @Description 点击量持久化到MySQL
+ * @create 2026/10/17
+ */
+public interface ClickPersistService {
+
+    /**
+     * 用ZSCAN分块遍历整个总排行榜，批量更新click_num。
+     * 游标保存在Redis中，任务中断后从上次完成的分块继续
+     */
+    void persistAll();
+
+    /**
+     * 原子地取出上次以来有过点击的书籍集合，只持久化这些书籍的点击量
+     */
+    void persistDirty();
+}
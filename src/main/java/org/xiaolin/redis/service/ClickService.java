@@ -0,0 +1,57 @@
+package org.xiaolin.redis.service;
+
+import org.xiaolin.redis.utils.RedisBatch;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author xlxing
+ * @Description 书籍点击记录
+ * @create 2026/10/17
+ */
+public interface ClickService {
+
+    /**
+     * 记录一次点击，更新全部排行榜
+     * @param bookId 书籍主键
+     */
+    void recordClick(Long bookId);
+
+    /**
+     * 记录一次点击，带有读者标识时同时计入当天的独立读者
+     * @param bookId 书籍主键
+     * @param readerId 用户或会话标识，为空时只记录点击
+     */
+    void recordClick(Long bookId, String readerId);
+
+    /**
+     * 响应式接口中记录一次点击，不阻塞调用线程
+     * @param bookId 书籍主键
+     * @return 写入完成
+     */
+    Mono<Void> recordClickReactive(Long bookId);
+
+    /**
+     * 响应式接口中记录一次点击，带有读者标识时同时计入当天的独立读者
+     * @param bookId 书籍主键
+     * @param readerId 用户或会话标识，为空时只记录点击
+     * @return 写入完成
+     */
+    Mono<Void> recordClickReactive(Long bookId, String readerId);
+
+    /**
+     * 若干次点击需要更新的全部排行榜，按点击时间路由到对应的小时、日、Smooth排行榜
+     * @param bookId 书籍主键
+     * @param count 点击次数
+     * @param time 点击时间
+     * @return 批量命令
+     */
+    RedisBatch clickBatch(Long bookId, long count, LocalDateTime time);
+
+    /**
+     * 同{@link #clickBatch(Long, long, LocalDateTime)}，作者已经由调用方批量查出，不再逐本查询
+     * @param authorId 作者主键，书籍没有作者时为null
+     */
+    RedisBatch clickBatch(Long bookId, long count, LocalDateTime time, Long authorId);
+}
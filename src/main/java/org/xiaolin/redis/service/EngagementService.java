@@ -0,0 +1,51 @@
+package org.xiaolin.redis.service;
+
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author xlxing
+ * @Description 点赞、评论的记录，以及点击、点赞、评论按权重合并的综合排行榜
+ * @create 2026/10/17
+ */
+public interface EngagementService {
+
+    /**
+     * 记录一次点赞或评论，计入当天的分桶
+     * @param bookId 书籍主键
+     * @param type 互动类型
+     */
+    void record(Long bookId, Type type);
+
+    /**
+     * 响应式接口中记录一次点赞或评论，不阻塞调用线程
+     * @param bookId 书籍主键
+     * @param type 互动类型
+     * @return 写入完成
+     */
+    Mono<Void> recordReactive(Long bookId, Type type);
+
+    /**
+     * 定时重新合并当天的综合排行榜，零点后的一个小时内同时合并前一天
+     */
+    void refresh();
+
+    /**
+     * 用一次ZUNIONSTORE按权重合并指定日期的点击、点赞、评论分桶，替换原有的综合排行榜
+     * @param day 日期，只取年月日
+     * @return 综合排行榜中的书籍数
+     */
+    long refresh(LocalDateTime day);
+
+    enum Type {
+        /**
+         * 点赞
+         */
+        LIKE,
+        /**
+         * 评论
+         */
+        COMMENT
+    }
+}
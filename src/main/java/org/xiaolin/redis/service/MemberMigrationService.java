@@ -0,0 +1,15 @@
+package org.xiaolin.redis.service;
+
+/**
+ * @author xlxing
+ * @Description 排行榜成员编码迁移
+ * @create 2026/10/17
+ */
+public interface MemberMigrationService {
+
+    /**
+     * SCAN全部book:*的ZSET和SET，把不是规范十进制书籍主键的成员合并到规范成员上，分数累加
+     * @return 改写的成员数
+     */
+    long migrate();
+}
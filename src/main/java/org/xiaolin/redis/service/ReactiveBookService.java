@@ -0,0 +1,48 @@
+package org.xiaolin.redis.service;
+
+import org.xiaolin.redis.common.resp.R;
+import org.xiaolin.redis.domain.Book;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * @author xlxing
+ * @Description 响应式的书籍查阅与排行榜查询，Redis操作不阻塞线程，数据库查询在有界线程池中执行
+ * @create 2026/10/17
+ */
+public interface ReactiveBookService {
+
+    /**
+     * 查看书籍信息并记录一次点击
+     * @param bookId 书籍主键
+     * @param readerId 用户或会话标识，带有时计入当天的独立读者，可以为空
+     * @return 书籍相关信息
+     */
+    Mono<R<Book>> getBook(Long bookId, String readerId);
+
+    /**
+     * 点赞或评论，书籍在本地缓存中时不切换线程
+     * @param bookId 书籍主键
+     * @param type 互动类型
+     * @return 记录结果
+     */
+    Mono<R<Void>> engageBook(Long bookId, EngagementService.Type type);
+
+    /**
+     * 查询排行榜区间
+     * @param start 开始索引
+     * @param end 结束索引
+     * @param sortKey 排行榜key
+     * @return 排行榜书籍列表
+     */
+    Mono<R<List<Book>>> rank(Integer start, Integer end, String sortKey);
+
+    /**
+     * 在数据库线程池中执行阻塞的操作
+     * @param callable 阻塞的操作
+     * @return 操作结果
+     */
+    <T> Mono<T> blocking(Callable<T> callable);
+}
@@ -0,0 +1,27 @@
+package org.xiaolin.redis.service;
+
+/**
+ * @author xlxing
+ * @Description 排行榜重新分片
+ * @create 2026/10/17
+ */
+public interface ReshardService {
+
+    /**
+     * 把排行榜从一种分片排布迁移到另一种，成员分数累加到新排布中所在的分片上。
+     * 迁移期间的点击无论写入新旧哪种排布都不会丢失，但读到的排行榜在迁移完成前不完整
+     * @param board 排行榜key
+     * @param fromCount 原分片数，1表示未分片
+     * @param toCount 目标分片数，1表示未分片
+     * @return 迁移的成员数
+     */
+    long reshard(String board, int fromCount, int toCount);
+
+    /**
+     * 加锁后执行{@link #reshard(String, int, int)}，旧排布独有的分片清空后记录完成标记。
+     * 滚动发布时每个实例启动以及定期检查都会调用，其他实例正在迁移时直接返回，否则分数会被重复转移；
+     * 已完成但旧版本实例又写入旧分片时再迁移一次
+     * @return 迁移的成员数，跳过时为0
+     */
+    long reshardOnce(String board, int fromCount, int toCount);
+}
@@ -0,0 +1,22 @@
+package org.xiaolin.redis.service;
+
+/**
+ * @author xlxing
+ * @Description 最近N小时滚动窗口排行榜
+ * @create 2026/10/17
+ */
+public interface RollingRankService {
+
+    /**
+     * 每个小时结束后把全部滚动窗口推进到最新关闭的小时，
+     * 错过的小时依次补上，落后超过一个窗口时重建
+     */
+    void roll();
+
+    /**
+     * 窗口对应的排行榜key
+     * @param hours 窗口长度
+     * @return 排行榜key，未配置该窗口时抛出异常
+     */
+    String rollingSortKey(int hours);
+}
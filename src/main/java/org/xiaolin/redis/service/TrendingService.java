@@ -0,0 +1,32 @@
+package org.xiaolin.redis.service;
+
+import java.util.List;
+
+/**
+ * @author xlxing
+ * @Description 本地统计的热门书籍，不依赖Redis
+ * @create 2026/10/17
+ */
+public interface TrendingService {
+
+    /**
+     * 记录一次点击，只修改本地状态
+     * @param bookId 书籍主键
+     */
+    void record(Long bookId);
+
+    /**
+     * 近似的前k名，开启交换时合并其他实例最近一次上报的统计
+     * @param k 名次
+     * @return 按估计值从高到低排列
+     */
+    List<Estimate> top(int k);
+
+    /**
+     * @param bookId 书籍主键
+     * @param estimate 衰减点击量的估计值，不小于真实值
+     * @param lowerBound 衰减点击量的下界
+     */
+    record Estimate(Long bookId, double estimate, double lowerBound) {
+    }
+}
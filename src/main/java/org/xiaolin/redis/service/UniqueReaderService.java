@@ -0,0 +1,23 @@
+package org.xiaolin.redis.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author xlxing
+ * @Description 每本书每天的独立读者排行榜
+ * @create 2026/10/17
+ */
+public interface UniqueReaderService {
+
+    /**
+     * 定时把当天各书籍HyperLogLog的基数物化为排行榜，零点后的一个小时内同时补上前一天
+     */
+    void materialize();
+
+    /**
+     * 物化指定日期的独立读者排行榜
+     * @param day 日期，只取年月日
+     * @return 写入排行榜的书籍数
+     */
+    long materialize(LocalDateTime day);
+}
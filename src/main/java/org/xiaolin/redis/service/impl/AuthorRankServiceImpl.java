@@ -0,0 +1,78 @@
+package org.xiaolin.redis.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.common.resp.AuthorRank;
+import org.xiaolin.redis.metrics.RankMetrics;
+import org.xiaolin.redis.service.AuthorRankService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 点击时ClickService在同一个pipeline中对book:author:{作者}和book:authors执行ZINCRBY，
+ * 这里只处理书籍换作者、删除书籍时的调整，以及作者排行榜的查询
+ * @author xlxing
+ * @Description 作者的书籍排行榜与作者排行榜
+ * @create 2026/10/17
+ */
+@Service
+@RequiredArgsConstructor
+public class AuthorRankServiceImpl implements AuthorRankService {
+
+    private static final RedisScript<Long> MOVE_SCRIPT =
+            RedisScript.of(new ClassPathResource("lua/author_move.lua"), Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisTemplate<String, Long> rankRedisTemplate;
+
+    private final RankMetrics rankMetrics;
+
+    @Override
+    public void move(Long bookId, Long oldAuthorId, Long newAuthorId) {
+        if (Objects.equals(oldAuthorId, newAuthorId)) {
+            return;
+        }
+        execute(bookId, oldAuthorId, newAuthorId);
+    }
+
+    @Override
+    public void remove(Long bookId, Long authorId) {
+        execute(bookId, authorId, null);
+    }
+
+    private void execute(Long bookId, Long oldAuthorId, Long newAuthorId) {
+        if (oldAuthorId == null) {
+            return;
+        }
+        String oldKey = RedisConstant.getAuthorSortKey(oldAuthorId);
+        String newKey = newAuthorId == null ? oldKey : RedisConstant.getAuthorSortKey(newAuthorId);
+        rankMetrics.redis("move", RankMetrics.board(RedisConstant.AUTHORS_SORT_KEY), () -> stringRedisTemplate.execute(MOVE_SCRIPT,
+                List.of(oldKey, newKey, RedisConstant.AUTHORS_SORT_KEY),
+                bookId.toString(), oldAuthorId.toString(), newAuthorId == null ? "" : newAuthorId.toString()));
+    }
+
+    @Override
+    public List<AuthorRank> rankAuthors(Integer start, Integer end) {
+        Set<ZSetOperations.TypedTuple<Long>> tuples = rankMetrics.redis("range", RankMetrics.board(RedisConstant.AUTHORS_SORT_KEY),
+                () -> rankRedisTemplate.opsForZSet().reverseRangeWithScores(RedisConstant.AUTHORS_SORT_KEY, start, end));
+        if (tuples == null) {
+            return List.of();
+        }
+        List<AuthorRank> authors = new ArrayList<>(tuples.size());
+        long rank = Math.max(start, 0) + 1;
+        for (ZSetOperations.TypedTuple<Long> tuple : tuples) {
+            authors.add(new AuthorRank(tuple.getValue(), rank++, tuple.getScore()));
+        }
+        return authors;
+    }
+}
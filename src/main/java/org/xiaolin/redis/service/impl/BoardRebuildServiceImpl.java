@@ -0,0 +1,216 @@
+package org.xiaolin.redis.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.mapper.BookMapper;
+import org.xiaolin.redis.metrics.RankMetrics;
+import org.xiaolin.redis.service.BoardRebuildService;
+import org.xiaolin.redis.utils.LongRedisSerializer;
+import org.xiaolin.redis.utils.ShardedBoard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Redis被清空或新实例为空时，所有排行榜要等流量重新累积。book.click_num保存了最近一次持久化的总点击量，
+ * 启动时总排行榜为空则用服务端游标按主键顺序流式读取book表，每batch-size本书一次pipeline写入临时key，
+ * 最后合并到排行榜。
+ * 重建在ApplicationRunner中完成，Spring Boot在所有ApplicationRunner结束后才进入就绪状态，
+ * 此前/actuator/health/readiness返回OUT_OF_SERVICE
+ * @author xlxing
+ * @Description 从MySQL重建Redis排行榜
+ * @create 2026/10/17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BoardRebuildServiceImpl implements BoardRebuildService, ApplicationRunner {
+
+    /**
+     * 每写入多少本书输出一次进度
+     */
+    private static final long PROGRESS_INTERVAL = 500_000;
+
+    private static final long STAGING_TTL_MS = 3_600_000;
+
+    private static final RedisScript<Long> MERGE_SCRIPT =
+            RedisScript.of(new ClassPathResource("lua/rebuild_merge.lua"), Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("lua/lock_release.lua"), Long.class);
+
+    private final BookMapper bookMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final RedisTemplate<String, Long> rankRedisTemplate;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ShardedBoard shardedBoard;
+
+    private final RankProperties rankProperties;
+
+    private final RankMetrics rankMetrics;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!rankProperties.getRebuild().isEnabled() || !isEmpty(RedisConstant.getSortKey())) {
+            return;
+        }
+        rankMetrics.job("board_rebuild", this::rebuild);
+    }
+
+    /**
+     * 重建期间排行榜上只有新到达的点击，持久化任务此时把分数写回click_num会覆盖历史点击量，
+     * 而游标还没读到的行会把这个分数读回来。所以先设置REBUILD_FENCE_KEY，所有实例的持久化任务看到它就跳过，
+     * 直到合并完成。标记同时是互斥锁，多个实例同时冷启动时只有一个重建，否则点击量会被重复累加
+     */
+    @Override
+    public long rebuild() {
+        String token = UUID.randomUUID().toString();
+        Duration fenceTtl = rankProperties.getRebuild().getFenceTtl();
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(RedisConstant.REBUILD_FENCE_KEY, token, fenceTtl))) {
+            log.info("其他实例正在重建排行榜，跳过");
+            return 0;
+        }
+        try {
+            return rebuild(fenceTtl);
+        } finally {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(RedisConstant.REBUILD_FENCE_KEY), token);
+        }
+    }
+
+    private long rebuild(Duration fenceTtl) {
+        String sortKey = RedisConstant.getSortKey();
+        boolean authors = rankProperties.getAuthor().isEnabled() && isEmpty(RedisConstant.AUTHORS_SORT_KEY);
+        int batchSize = Math.max(rankProperties.getRebuild().getBatchSize(), 1);
+        long begin = System.currentTimeMillis();
+        log.info("{}为空，从MySQL重建{}", sortKey, authors ? "总排行榜和作者排行榜" : "总排行榜");
+
+        Staging staging = new Staging("rebuild:" + begin, fenceTtl);
+        Map<Long, Long> authorTotals = new HashMap<>();
+        Long rebuilt = transactionTemplate.execute(status -> {
+            long count = 0;
+            try (Cursor<Book> cursor = bookMapper.scanClickNums()) {
+                for (Book book : cursor) {
+                    long clickNum = book.getClickNum();
+                    staging.add(shardedBoard.shardKey(sortKey, book.getId()), book.getId(), clickNum);
+                    if (authors && book.getAuthorId() != null) {
+                        staging.add(RedisConstant.getAuthorSortKey(book.getAuthorId()), book.getId(), clickNum);
+                        authorTotals.merge(book.getAuthorId(), clickNum, Long::sum);
+                    }
+                    if (++count % batchSize == 0) {
+                        staging.flush();
+                    }
+                    if (count % PROGRESS_INTERVAL == 0) {
+                        log.info("已读取{}本书籍，{}本/秒", count, rate(count, begin));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        });
+        authorTotals.forEach((authorId, total) -> staging.add(RedisConstant.AUTHORS_SORT_KEY, authorId, total));
+        staging.flush();
+        staging.merge();
+        long count = rebuilt == null ? 0 : rebuilt;
+        log.info("重建{}完成，共{}本书籍，耗时{}ms，{}本/秒", sortKey, count, System.currentTimeMillis() - begin, rate(count, begin));
+        return count;
+    }
+
+    /**
+     * 逐本ZINCRBY每条命令只写一个成员，百万本书要数百万条命令。这里先用多成员的ZADD写入临时key，
+     * 最后对每个排行榜执行一次rebuild_merge.lua：把重建期间排行榜上新增的点击累加到临时key后改名替换，
+     * 耗时只与新增的点击有关。临时key与排行榜同名加后缀，分片的hash tag不变，带有过期时间，任务中断时自行清除
+     */
+    private class Staging {
+
+        private final String suffix;
+
+        private final Duration fenceTtl;
+
+        /**
+         * 临时key -> 待写入的成员
+         */
+        private final Map<String, Set<Tuple>> pending = new HashMap<>();
+
+        /**
+         * 临时key -> 排行榜
+         */
+        private final Map<String, String> targets = new LinkedHashMap<>();
+
+        Staging(String suffix, Duration fenceTtl) {
+            this.suffix = suffix;
+            this.fenceTtl = fenceTtl;
+        }
+
+        void add(String board, Long member, double score) {
+            String stagingKey = board + ":" + suffix;
+            targets.putIfAbsent(stagingKey, board);
+            pending.computeIfAbsent(stagingKey, key -> new HashSet<>())
+                    .add(new DefaultTuple(LongRedisSerializer.INSTANCE.serialize(member), score));
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            RedisSerializer<String> keySerializer = RedisSerializer.string();
+            rankMetrics.redis("rebuild", "batch", () -> rankRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                pending.forEach((stagingKey, tuples) -> {
+                    byte[] rawKey = keySerializer.serialize(stagingKey);
+                    connection.zSetCommands().zAdd(rawKey, tuples);
+                    connection.keyCommands().pExpire(rawKey, STAGING_TTL_MS);
+                });
+                return null;
+            }));
+            pending.clear();
+            stringRedisTemplate.expire(RedisConstant.REBUILD_FENCE_KEY, fenceTtl);
+        }
+
+        void merge() {
+            targets.forEach((stagingKey, board) -> rankMetrics.redis("rebuild", RankMetrics.board(board),
+                    () -> stringRedisTemplate.execute(MERGE_SCRIPT, List.of(board, stagingKey))));
+        }
+    }
+
+    private boolean isEmpty(String board) {
+        for (String key : shardedBoard.shardKeys(board)) {
+            Long size = rankRedisTemplate.opsForZSet().zCard(key);
+            if (size != null && size > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long rate(long count, long begin) {
+        return count * 1000 / Math.max(System.currentTimeMillis() - begin, 1);
+    }
+}
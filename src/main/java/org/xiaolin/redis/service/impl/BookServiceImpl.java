@@ -6,26 +6,47 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.RedisSystemException;
 import org.springframework.data.redis.core.BoundZSetOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.transaction.annotation.Transactional;
+import org.xiaolin.redis.cache.AuthorCache;
+import org.xiaolin.redis.cache.BookCache;
+import org.xiaolin.redis.cache.BookIdFilter;
+import org.xiaolin.redis.cache.RankSnapshotCache;
 import org.xiaolin.redis.common.constant.RedisConstant;
 import org.xiaolin.redis.common.req.BookAddDto;
 import org.xiaolin.redis.common.req.BookUpdateDto;
+import org.xiaolin.redis.common.resp.BookRank;
 import org.xiaolin.redis.common.resp.R;
+import org.xiaolin.redis.common.resp.SeekPage;
+import org.xiaolin.redis.common.resp.RankEntry;
+import org.xiaolin.redis.common.resp.TrendingBook;
+import org.xiaolin.redis.config.RankProperties;
 import org.xiaolin.redis.domain.Book;
 import org.xiaolin.redis.exception.GlobalException;
+import org.xiaolin.redis.service.AuthorRankService;
 import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.service.ClickPersistService;
+import org.xiaolin.redis.service.ClickService;
+import org.xiaolin.redis.service.EngagementService;
+import org.xiaolin.redis.service.RollingRankService;
+import org.xiaolin.redis.service.TrendingService;
 import org.xiaolin.redis.mapper.BookMapper;
+import org.xiaolin.redis.metrics.RankMetrics;
+import org.xiaolin.redis.utils.ShardedBoard;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -40,7 +61,46 @@ import java.util.Set;
 public class BookServiceImpl extends ServiceImpl<BookMapper, Book>
     implements BookService{
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    /**
+     * 查询相邻书籍时前后最多各取几名
+     */
+    private static final int MAX_AROUND = 50;
+
+    private static final String ROLLING_BOARD_PREFIX = "rolling_";
+
+    private static final String AUTHOR_BOARD_PREFIX = "author_";
+
+    private static final int MAX_SEEK_PAGE_SIZE = 500;
+
+    private static final int MAX_SEEK_SKIP = 1000;
+
+    private final RedisTemplate<String, Long> rankRedisTemplate;
+
+    private final ClickService clickService;
+
+    private final BookCache bookCache;
+
+    private final BookIdFilter bookIdFilter;
+
+    private final RankSnapshotCache rankSnapshotCache;
+
+    private final RankProperties rankProperties;
+
+    private final RollingRankService rollingRankService;
+
+    private final ClickPersistService clickPersistService;
+
+    private final RankMetrics rankMetrics;
+
+    private final ShardedBoard shardedBoard;
+
+    private final TrendingService trendingService;
+
+    private final EngagementService engagementService;
+
+    private final AuthorCache authorCache;
+
+    private final AuthorRankService authorRankService;
 
     /**
      * 查看数据信息
@@ -49,36 +109,36 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book>
      */
     @Override
     public R<Book> getBook(Long bookId) {
-        // 读数据库操作
-        Book book = this.getById(bookId);
+        return getBook(bookId, null);
+    }
+
+    @Override
+    public R<Book> getBook(Long bookId, String readerId) {
+        // 读本地缓存，未命中时读数据库
+        Book book = bookCache.get(bookId);
         if (book == null) {
             throw new GlobalException("Book not found: "+bookId);
         } else {
-            // 总的排行榜
-            String sortKey = RedisConstant.getSortKey();
-            BoundZSetOperations<String, Object> zSetSort = redisTemplate.boundZSetOps(sortKey);
-            zSetSort.incrementScore(bookId, 1.0);
-
-            // 当前小时内的排行榜
-            String hourSortKey = RedisConstant.getSortHourKey();
-            BoundZSetOperations<String, Object> zSetHour = redisTemplate.boundZSetOps(hourSortKey);
-            zSetHour.incrementScore(bookId, 1.0);
-
-            // 当天的排行榜
-            String daySortKey = RedisConstant.getSortDayKey();
-            BoundZSetOperations<String, Object> zSetDay = redisTemplate.boundZSetOps(daySortKey);
-            zSetDay.incrementScore(bookId, 1.0);
-
-            // Smooth排行榜
-            String smoothSortKey = RedisConstant.getSmoothSortKey();
-            BoundZSetOperations<String, Object> zSetSmooth = redisTemplate.boundZSetOps(smoothSortKey);
-            Duration duration = Duration.between(RedisConstant.getSmoothSortDateTime(), LocalDateTime.now());
-            zSetSmooth.incrementScore(bookId, duration.getSeconds() * RedisConstant.BETA);
-
+            try {
+                clickService.recordClick(bookId, readerId);
+            } catch (RedisConnectionFailureException | RedisSystemException | QueryTimeoutException e) {
+                // Redis不可用时仍然返回书籍，点击只计入本地的热门统计
+                rankMetrics.degraded("click");
+                log.debug("记录点击失败: {}", e.getMessage());
+            }
             return R.ok(book);
         }
     }
 
+    @Override
+    public R<Void> engageBook(Long bookId, EngagementService.Type type) {
+        if (bookCache.get(bookId) == null) {
+            throw new GlobalException("Book not found: "+bookId);
+        }
+        engagementService.record(bookId, type);
+        return R.ok();
+    }
+
     @Override
     public R<Page<Book>> getBookPage(int page, int pageSize) {
         Page<Book> bookInfo = new Page<>(page, pageSize);
@@ -88,6 +148,81 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book>
         return R.ok(bookInfo);
     }
 
+    /**
+     * update_time非空的行按(update_time, id)倒序在前，为空的行按id倒序在后，与ORDER BY update_time DESC的顺序一致。
+     * 多取一行判断是否还有下一页
+     */
+    @Override
+    public R<SeekPage<Book>> getBookSeek(String cursor, int pageSize, int skip) {
+        int size = Math.min(Math.max(pageSize, 1), MAX_SEEK_PAGE_SIZE);
+        int skipping = Math.min(Math.max(skip, 0), MAX_SEEK_SKIP);
+        int limit = skipping + size + 1;
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<Book> books = new ArrayList<>(limit);
+        if (after == null || after.updateTime() != null) {
+            books.addAll(seek(after, limit));
+        }
+        if (books.size() < limit) {
+            books.addAll(seekNullUpdateTime(after == null || after.updateTime() != null ? null : after.id(),
+                    limit - books.size()));
+        }
+        int skipped = Math.min(skipping, books.size());
+        List<Book> records = books.subList(skipped, Math.min(skipped + size, books.size()));
+        String next = books.size() == limit ? SeekCursor.encode(records.get(records.size() - 1)) : null;
+        return R.ok(new SeekPage<>(List.copyOf(records), next, skipped));
+    }
+
+    private List<Book> seek(SeekCursor after, int limit) {
+        LambdaQueryWrapper<Book> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.isNotNull(Book::getUpdateTime);
+        if (after != null) {
+            queryWrapper.and(w -> w.lt(Book::getUpdateTime, after.updateTime())
+                    .or(o -> o.eq(Book::getUpdateTime, after.updateTime()).lt(Book::getId, after.id())));
+        }
+        queryWrapper.orderByDesc(Book::getUpdateTime).orderByDesc(Book::getId);
+        // 不查询总数，偏移量总是0
+        return this.page(new Page<>(1, limit, false), queryWrapper).getRecords();
+    }
+
+    private List<Book> seekNullUpdateTime(Long afterId, int limit) {
+        LambdaQueryWrapper<Book> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.isNull(Book::getUpdateTime);
+        if (afterId != null) {
+            queryWrapper.lt(Book::getId, afterId);
+        }
+        queryWrapper.orderByDesc(Book::getId);
+        return this.page(new Page<>(1, limit, false), queryWrapper).getRecords();
+    }
+
+    /**
+     * 分页游标，对客户端不透明，内容为本页最后一行的update_time与id
+     */
+    private record SeekCursor(LocalDateTime updateTime, Long id) {
+
+        private static final String NULL_TIME = "-";
+
+        static String encode(Book book) {
+            String time = book.getUpdateTime() == null ? NULL_TIME : book.getUpdateTime().toString();
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((time + "," + book.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static SeekCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = value.indexOf(',');
+                String time = value.substring(0, separator);
+                return new SeekCursor(NULL_TIME.equals(time) ? null : LocalDateTime.parse(time),
+                        Long.valueOf(value.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new GlobalException("无效的分页游标: " + cursor);
+            }
+        }
+    }
+
     /**
      * 获取排行榜
      * @param start 开始索引
@@ -96,37 +231,177 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book>
      */
     @Override
     public R<List<Book>> rankDayBook(int start, int end) {
-        return rank(start, end, RedisConstant.getSortDayKey());
+        return rankByKey(start, end, RedisConstant.getSortDayKey());
     }
 
     @Override
     public R<List<Book>> rankHourBook(Integer start, Integer end) {
-        return rank(start, end, RedisConstant.getSortHourKey());
+        return rankByKey(start, end, RedisConstant.getSortHourKey());
     }
 
     @Override
     public R<List<Book>> rankBook(Integer start, Integer end) {
-        return rank(start, end, RedisConstant.getSortKey());
+        return rankByKey(start, end, RedisConstant.getSortKey());
     }
 
     @Override
     public R<List<Book>> rankSmoothBook(Integer start, Integer end) {
-        return rank(start, end, RedisConstant.getSmoothSortKey());
+        return rankByKey(start, end, RedisConstant.getSmoothSortKey());
     }
 
+    @Override
+    public R<List<Book>> rankDecayBook(Integer start, Integer end) {
+        return rankByKey(start, end, RedisConstant.getDecaySortKey());
+    }
+
+    @Override
+    public R<List<Book>> rankUniqueBook(Integer start, Integer end) {
+        return rankByKey(start, end, RedisConstant.getUniqueSortKey());
+    }
+
+    @Override
+    public R<List<Book>> rankEngagementBook(Integer start, Integer end) {
+        return rankByKey(start, end, RedisConstant.getEngagementSortKey());
+    }
+
+    @Override
+    public R<List<Book>> rankAuthorBook(Long authorId, Integer start, Integer end) {
+        return rankByKey(start, end, RedisConstant.getAuthorSortKey(authorId));
+    }
+
+    @Override
+    public R<List<Book>> rankRollingBook(Integer hours, Integer start, Integer end) {
+        return rankByKey(start, end, rollingRankService.rollingSortKey(hours));
+    }
+
+
+    @Override
+    public R<List<Book>> rankByKey(Integer start, Integer end, String sortKey) {
+        try {
+            return rankFromRedis(start, end, sortKey);
+        } catch (RedisConnectionFailureException | RedisSystemException | QueryTimeoutException e) {
+            log.warn("查询排行榜{}失败，降级处理: {}", sortKey, e.getMessage());
+            return rankFallback(start, end, sortKey);
+        }
+    }
+
+    @Override
+    public String sortKey(String board) {
+        return switch (board) {
+            case "total" -> RedisConstant.getSortKey();
+            case "hour" -> RedisConstant.getSortHourKey();
+            case "day" -> RedisConstant.getSortDayKey();
+            case "smooth" -> RedisConstant.getSmoothSortKey();
+            case "decay" -> RedisConstant.getDecaySortKey();
+            case "unique" -> RedisConstant.getUniqueSortKey();
+            case "engagement" -> RedisConstant.getEngagementSortKey();
+            default -> {
+                if (board.startsWith(ROLLING_BOARD_PREFIX) && board.endsWith("h")) {
+                    try {
+                        yield rollingRankService.rollingSortKey(
+                                Integer.parseInt(board.substring(ROLLING_BOARD_PREFIX.length(), board.length() - 1)));
+                    } catch (NumberFormatException ignored) {
+                        // 按未知排行榜处理
+                    }
+                }
+                if (board.startsWith(AUTHOR_BOARD_PREFIX)) {
+                    try {
+                        yield RedisConstant.getAuthorSortKey(Long.valueOf(board.substring(AUTHOR_BOARD_PREFIX.length())));
+                    } catch (NumberFormatException ignored) {
+                        // 按未知排行榜处理
+                    }
+                }
+                throw new GlobalException("未知的排行榜: " + board);
+            }
+        };
+    }
+
+    @Override
+    public R<BookRank> rankAround(Long bookId, String board, Integer k) {
+        String sortKey = sortKey(board);
+        int window = Math.min(Math.max(k, 0), MAX_AROUND);
+        ShardedBoard.Around around = rankMetrics.redis("around", RankMetrics.board(sortKey),
+                () -> shardedBoard.around(sortKey, bookId, window));
+        if (around == null) {
+            throw new GlobalException("书籍不在排行榜中: " + bookId);
+        }
+        List<ZSetOperations.TypedTuple<Long>> tuples = around.window();
+        Map<Long, Book> bookMap = bookCache.getAll(tuples.stream().map(ZSetOperations.TypedTuple::getValue).toList());
+        List<RankEntry> neighbours = new ArrayList<>(tuples.size());
+        for (int i = 0; i < tuples.size(); i++) {
+            Book book = bookMap.get(tuples.get(i).getValue());
+            if (book != null) {
+                neighbours.add(new RankEntry(book, around.firstRank() + i + 1, tuples.get(i).getScore()));
+            }
+        }
+        return R.ok(new BookRank(bookId, around.rank() + 1, around.score(), neighbours));
+    }
 
-    private R<List<Book>> rank(Integer start, Integer end, String sortKey) {
-        BoundZSetOperations<String, Object> operations = redisTemplate.boundZSetOps(sortKey);
+    @Override
+    public R<List<Book>> rankFallback(Integer start, Integer end, String sortKey) {
+        rankMetrics.degraded("range");
+        List<Book> books = rankSnapshotCache.stale(sortKey, start, end);
+        if (books != null) {
+            return R.ok(books);
+        }
+        List<Long> bookIds = trendingService.top(end + 1).stream().map(TrendingService.Estimate::bookId).toList();
+        return R.ok(listByIdsInOrder(bookIds.subList(Math.min(Math.max(start, 0), bookIds.size()), bookIds.size())));
+    }
+
+    @Override
+    public R<List<TrendingBook>> rankTrendingBook(Integer k) {
+        List<TrendingService.Estimate> estimates = trendingService.top(k);
+        Map<Long, Book> bookMap = bookCache.getAll(estimates.stream().map(TrendingService.Estimate::bookId).toList());
+        return R.ok(estimates.stream()
+                .filter(estimate -> bookMap.containsKey(estimate.bookId()))
+                .map(estimate -> new TrendingBook(bookMap.get(estimate.bookId()), estimate.estimate(), estimate.lowerBound()))
+                .toList());
+    }
+
+    private R<List<Book>> rankFromRedis(Integer start, Integer end, String sortKey) {
+        RankProperties.Snapshot snapshot = rankProperties.getSnapshot();
+        int size = snapshot.getSize();
+        // 前N名内的区间直接读本地快照
+        if (snapshot.isEnabled() && start >= 0 && end >= start && end < size) {
+            List<Book> books = rankSnapshotCache.get(sortKey, start, end, () -> {
+                List<Long> bookIds = rankIds(0, size - 1, sortKey);
+                return new RankSnapshotCache.Snapshot(listByIdsInOrder(bookIds), bookIds.size() < size);
+            });
+            if (books != null) {
+                return R.ok(books);
+            }
+        }
+        return R.ok(listByIdsInOrder(rankIds(start, end, sortKey)));
+    }
 
-        Set<Object> rankObjects = operations.reverseRange(start, end);
-        if (rankObjects == null) {
+    private List<Long> rankIds(Integer start, Integer end, String sortKey) {
+        if (shardedBoard.isSharded(sortKey)) {
+            return rankMetrics.redis("range", RankMetrics.board(sortKey), () -> shardedBoard.reverseRange(sortKey, start, end));
+        }
+        BoundZSetOperations<String, Long> operations = rankRedisTemplate.boundZSetOps(sortKey);
+
+        Set<Long> bookIds = rankMetrics.redis("range", RankMetrics.board(sortKey), () -> operations.reverseRange(start, end));
+        if (bookIds == null) {
             throw new GlobalException("查询排行榜失败");
         }
-        List<Book> books = rankObjects
+        return List.copyOf(bookIds);
+    }
+
+    /**
+     * 先查本地缓存，未命中的书籍合并为一次IN查询，并按传入的顺序排列，数据库中已不存在的书籍直接跳过
+     * @param bookIds 书籍主键，按排名先后排列
+     * @return 书籍列表
+     */
+    private List<Book> listByIdsInOrder(List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> bookMap = bookCache.getAll(bookIds);
+        return bookIds
                 .stream()
-                .map(o -> this.getById(Long.valueOf(o.toString())))
+                .map(bookMap::get)
+                .filter(Objects::nonNull)
                 .toList();
-        return R.ok(books);
     }
 
     @Override
@@ -134,6 +409,7 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book>
         Book book = new Book(bookAddDto.getAuthorId(), bookAddDto.getName());
         boolean inserted = this.save(book);
         if (inserted) {
+            bookIdFilter.add(book.getId());
             return R.ok();
         } else {
             throw new GlobalException("书籍插入失败");
@@ -143,20 +419,25 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book>
 
     @Override
     public R<Void> deleteBook(Long bookId) {
-        String daySortKey = RedisConstant.getSortDayKey();
-        String hourSortKey = RedisConstant.getSortHourKey();
-        String sortKey = RedisConstant.getSortKey();
-        String smoothSortKey = RedisConstant.getSmoothSortKey();
+        Long authorId = authorCache.authorId(bookId);
+        List<String> sortKeys = new ArrayList<>(List.of(RedisConstant.getSortDayKey(), RedisConstant.getSortHourKey(),
+                shardedBoard.shardKey(RedisConstant.getSortKey(), bookId), RedisConstant.getSmoothSortKey(),
+                RedisConstant.getDecaySortKey(), RedisConstant.getUniqueSortKey(), RedisConstant.getEngagementSortKey(),
+                RedisConstant.getLikeDayKey(LocalDateTime.now()), RedisConstant.getCommentDayKey(LocalDateTime.now())));
+        rankProperties.getRolling().getWindows()
+                .forEach(hours -> sortKeys.add(RedisConstant.getRollingSortKey(hours)));
 
         // 删除redis缓存
-        redisTemplate.opsForZSet().remove(daySortKey, bookId);
-        redisTemplate.opsForZSet().remove(hourSortKey, bookId);
-        redisTemplate.opsForZSet().remove(sortKey, bookId);
-        redisTemplate.opsForZSet().remove(smoothSortKey, bookId);
+        sortKeys.forEach(sortKey -> rankMetrics.redis("delete", RankMetrics.board(sortKey),
+                () -> rankRedisTemplate.opsForZSet().remove(sortKey, bookId)));
 
         // 删除数据库
         boolean b = this.removeById(bookId);
         if (b) {
+            authorRankService.remove(bookId, authorId);
+            authorCache.invalidate(bookId);
+            bookCache.evict(bookId);
+            rankSnapshotCache.clear();
             return R.ok();
         } else {
             throw new GlobalException("用户不存在，删除操作失败");
@@ -165,6 +446,7 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book>
 
     @Override
     public R<Void> updateBook(BookUpdateDto bookUpdateDto) {
+        Book old = this.getById(bookUpdateDto.getId());
         LambdaUpdateWrapper<Book> updateWrapper = new LambdaUpdateWrapper<>();
         updateWrapper.eq(Book::getId, bookUpdateDto.getId())
                 .set(Book::getName, bookUpdateDto.getName())
@@ -172,6 +454,10 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book>
                 .set(Book::getUpdateTime, LocalDateTime.now());
         boolean updated = this.update(updateWrapper);
         if (updated) {
+            authorCache.invalidate(bookUpdateDto.getId());
+            bookCache.evict(bookUpdateDto.getId());
+            // 其他实例收到失效通知之前的点击仍会计入原作者
+            authorRankService.move(bookUpdateDto.getId(), old == null ? null : old.getAuthorId(), bookUpdateDto.getAuthorId());
             return R.ok();
         } else {
             throw new GlobalException("用户不存在");
@@ -179,61 +465,14 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book>
     }
 
     /**
-     * 每天的02:01:10执行该定时任务
-     * 1. 持久化Redis中的点击量到数据库中
-     * 2. 清除3种无效的ZSet
+     * 每天的02:01:10执行该定时任务，持久化Redis中的点击量到数据库中
+     * 过期的小时、日、Smooth排行榜在写入时已设置EXPIREAT，由BucketExpiryService兜底UNLINK
      */
     @Override
-    @Scheduled(cron = "10 1 2 * * ? *")
-    @Transactional
+    @Scheduled(cron = "10 1 2 * * ?")
     public void updateDatabase() {
         log.info("持久化Redis数据到MySQL中");
-        String sortKey = RedisConstant.getSortKey();
-//        Set<ZSetOperations.TypedTuple<Object>> tuples = redisTemplate.opsForZSet().rangeWithScores(sortKey, 0, -1);
-        List<ZSetOperations.TypedTuple<Object>> tuples = redisTemplate.opsForZSet().randomMembersWithScore(sortKey, 100L);
-        if (tuples == null) {
-            return;
-        }
-
-        List<Book> books = tuples
-                .stream()
-                .filter(tuple -> tuple.getValue() != null)
-                .map(objectTypedTuple -> {
-                    Long id = Long.valueOf(Objects.requireNonNull(objectTypedTuple.getValue()).toString());
-                    int clickNum = Objects.requireNonNull(objectTypedTuple.getScore()).intValue();
-                    Book book = this.getById(id);
-                    book.setClickNum(clickNum);
-                    return book;
-                }).toList();
-
-        this.updateBatchById(books);
-
-        // 清除sortDayKey
-        String lastSortDayKey = RedisConstant.getLastSortDayKey();
-        Boolean deleted = redisTemplate.delete(lastSortDayKey);
-        if (Boolean.TRUE.equals(deleted)) {
-            log.info("清除前一天的排行榜成功");
-        } else {
-            log.info("清除前一天的排行榜失败");
-        }
-
-        // 清除sortHourKey
-        for(int i=1; i<=24; i++) {
-            String sortHourKey = RedisConstant.SORT_HOUR_PREFIX + LocalDateTime.now().minusHours(i).format(DateTimeFormatter.ofPattern("yyyyMMddHH"));
-            Boolean deletedSortHourKey = redisTemplate.delete(sortHourKey);
-            if (Boolean.FALSE.equals(deletedSortHourKey)) {
-                log.info("清除"+sortHourKey+"失败");
-            }
-        }
-
-        // 清除sortSmoothKey
-        String lastSmoothSortKey = RedisConstant.getLastSmoothSortKey();
-        Boolean deletedSmooth = redisTemplate.delete(lastSmoothSortKey);
-        if (Boolean.TRUE.equals(deletedSmooth)) {
-            log.info("清除Smooth排行榜成功");
-        } else {
-            log.info("清除Smooth排行榜失败");
-        }
+        rankMetrics.job("update_database", clickPersistService::persistAll);
     }
 
 }
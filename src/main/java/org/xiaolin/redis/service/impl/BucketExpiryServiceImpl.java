@@ -0,0 +1,148 @@
+package org.xiaolin.redis.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.service.BucketExpiryService;
+import org.xiaolin.redis.utils.RedisBatch;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author xlxing
+ * @Description 分桶排行榜key的过期与清理
+ * @create 2026/10/17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BucketExpiryServiceImpl implements BucketExpiryService {
+
+    private static final int SCAN_COUNT = 1000;
+
+    private static final int ARMED_KEYS_LIMIT = 1024;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RankProperties rankProperties;
+
+    /**
+     * 本实例已经设置过过期时间的key，分桶key每小时轮换，数量很少
+     */
+    private final Set<String> armedKeys = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void arm(RedisBatch batch, String key) {
+        if (armedKeys.contains(key)) {
+            return;
+        }
+        Long deadline = deadline(key);
+        if (deadline == null) {
+            return;
+        }
+        if (armedKeys.size() >= ARMED_KEYS_LIMIT) {
+            armedKeys.clear();
+        }
+        armedKeys.add(key);
+        batch.expireAt(key, deadline);
+    }
+
+    @Override
+    public Long deadline(String key) {
+        try {
+            LocalDateTime expireAt;
+            if (key.startsWith(RedisConstant.SORT_HOUR_PREFIX)) {
+                LocalDateTime hour = LocalDateTime.parse(key.substring(RedisConstant.SORT_HOUR_PREFIX.length()),
+                        DateTimeFormatter.ofPattern("yyyyMMddHH"));
+                // 小时桶关闭后还要保留到移出最长的滚动窗口，并留出两小时的推进余量
+                expireAt = hour.plusHours(rankProperties.getRolling().hourRetention() + 1L);
+            } else if (key.startsWith(RedisConstant.SORT_DAY_PREFIX)) {
+                LocalDate day = LocalDate.parse(key.substring(RedisConstant.SORT_DAY_PREFIX.length()),
+                        DateTimeFormatter.ofPattern("yyyyMMdd"));
+                expireAt = day.atStartOfDay().plus(rankProperties.getRetention().getDay());
+            } else if (key.startsWith(RedisConstant.UNIQUE_HLL_PREFIX)) {
+                String rest = key.substring(RedisConstant.UNIQUE_HLL_PREFIX.length());
+                int separator = rest.indexOf(':');
+                LocalDate day = LocalDate.parse(separator < 0 ? rest : rest.substring(0, separator),
+                        DateTimeFormatter.ofPattern("yyyyMMdd"));
+                expireAt = day.atStartOfDay().plus(rankProperties.getRetention().getUnique());
+            } else if (key.startsWith(RedisConstant.UNIQUE_TOUCHED_PREFIX) || key.startsWith(RedisConstant.UNIQUE_SORT_PREFIX)) {
+                LocalDate day = LocalDate.parse(key.substring(key.lastIndexOf(':') + 1),
+                        DateTimeFormatter.ofPattern("yyyyMMdd"));
+                expireAt = day.atStartOfDay().plus(rankProperties.getRetention().getUnique());
+            } else if (key.startsWith(RedisConstant.LIKE_DAY_PREFIX) || key.startsWith(RedisConstant.COMMENT_DAY_PREFIX)
+                    || key.startsWith(RedisConstant.ENGAGEMENT_SORT_PREFIX)) {
+                LocalDate day = LocalDate.parse(key.substring(key.lastIndexOf(':') + 1),
+                        DateTimeFormatter.ofPattern("yyyyMMdd"));
+                expireAt = day.atStartOfDay().plus(rankProperties.getRetention().getDay());
+            } else if (key.startsWith(RedisConstant.SMOOTH_SORT_KEY)) {
+                LocalDateTime bench = LocalDateTime.parse(key.substring(RedisConstant.SMOOTH_SORT_KEY.length()),
+                        DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+                expireAt = bench.plus(rankProperties.getRetention().getSmooth());
+            } else {
+                return null;
+            }
+            return expireAt.atZone(ZoneId.systemDefault()).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "30 7 * * * ?")
+    public void sweep() {
+        long now = System.currentTimeMillis() / 1000;
+        int unlinked = 0;
+        int armed = 0;
+        for (String pattern : List.of(RedisConstant.SORT_HOUR_PREFIX + "*", RedisConstant.SORT_DAY_PREFIX + "*",
+                RedisConstant.SMOOTH_SORT_KEY + "*", RedisConstant.UNIQUE_TOUCHED_PREFIX + "*",
+                RedisConstant.UNIQUE_SORT_PREFIX + "*", RedisConstant.LIKE_DAY_PREFIX + "*",
+                RedisConstant.COMMENT_DAY_PREFIX + "*", RedisConstant.ENGAGEMENT_SORT_PREFIX + "*")) {
+            List<String> expired = new ArrayList<>();
+            try (Cursor<String> cursor = stringRedisTemplate.scan(
+                    ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build())) {
+                while (cursor.hasNext()) {
+                    String key = cursor.next();
+                    Long deadline = deadline(key);
+                    if (deadline == null) {
+                        log.warn("无法识别的分桶key: {}", key);
+                    } else if (deadline <= now) {
+                        expired.add(key);
+                        if (expired.size() == SCAN_COUNT) {
+                            unlinked += unlink(expired);
+                        }
+                    } else if (Long.valueOf(-1L).equals(stringRedisTemplate.getExpire(key))) {
+                        stringRedisTemplate.expireAt(key, Instant.ofEpochSecond(deadline));
+                        armed++;
+                    }
+                }
+            }
+            unlinked += unlink(expired);
+        }
+        log.info("清理过期排行榜{}个，补设过期时间{}个", unlinked, armed);
+    }
+
+    private int unlink(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long count = stringRedisTemplate.unlink(keys);
+        keys.clear();
+        return count == null ? 0 : count.intValue();
+    }
+}
@@ -0,0 +1,219 @@
+package org.xiaolin.redis.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.xiaolin.redis.cache.AuthorCache;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.common.req.ClickEventDto;
+import org.xiaolin.redis.common.resp.ClickIngestResult;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.exception.GlobalException;
+import org.xiaolin.redis.service.BucketExpiryService;
+import org.xiaolin.redis.service.ClickIngestService;
+import org.xiaolin.redis.service.ClickService;
+import org.xiaolin.redis.utils.BatchAggregator;
+import org.xiaolin.redis.utils.RedisBatch;
+import org.xiaolin.redis.utils.RedisZSet;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 批量导入点击：按(排行榜, 书籍)预先合并，每积累rank.ingest.chunk-size条命令以一次pipeline写入。
+ * 点击事件先积累rank.ingest.chunk-size条，用{@link AuthorCache#authorIds}批量查出作者后再生成命令，
+ * 不为每本书单独查询数据库。
+ * 点击按时间路由到对应的小时、日排行榜，已过保留期的分桶直接跳过；已经滚入滚动窗口的小时桶，
+ * 增量同时加到滚动窗口排行榜上，否则该小时桶滚出窗口时会多减
+ * @author xlxing
+ * @Description 点击批量导入
+ * @create 2026/10/17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClickIngestServiceImpl implements ClickIngestService {
+
+    private static final int BINARY_RECORD_BYTES = 20;
+
+    /**
+     * 允许的时钟偏差，更晚的点击视为非法
+     */
+    private static final long MAX_CLOCK_SKEW_MS = 60_000;
+
+    private final ClickService clickService;
+
+    private final AuthorCache authorCache;
+
+    private final RedisZSet redisZSet;
+
+    private final BucketExpiryService bucketExpiryService;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RankProperties rankProperties;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public ClickIngestResult ingestNdjson(InputStream body) {
+        Ingestion ingestion = new Ingestion();
+        try (MappingIterator<ClickEventDto> events = objectMapper.readerFor(ClickEventDto.class).readValues(body)) {
+            while (events.hasNextValue()) {
+                ClickEventDto event = events.nextValue();
+                ingestion.accept(event.getBookId(), event.getCount() == null ? 1 : event.getCount(),
+                        event.getTimestamp() == null ? System.currentTimeMillis() : event.getTimestamp());
+            }
+        } catch (JsonProcessingException e) {
+            throw new GlobalException("第" + (ingestion.events + 1) + "条点击事件格式错误: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new GlobalException("读取点击事件失败: " + e.getMessage());
+        }
+        return ingestion.finish();
+    }
+
+    @Override
+    public ClickIngestResult ingestBinary(InputStream body) {
+        Ingestion ingestion = new Ingestion();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(body, 64 * 1024));
+        byte[] record = new byte[BINARY_RECORD_BYTES];
+        try {
+            while (true) {
+                int first = in.read();
+                if (first < 0) {
+                    break;
+                }
+                record[0] = (byte) first;
+                in.readFully(record, 1, BINARY_RECORD_BYTES - 1);
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                ingestion.accept(buffer.getLong(), buffer.getInt(), buffer.getLong());
+            }
+        } catch (EOFException e) {
+            throw new GlobalException("点击记录不完整，每条应为" + BINARY_RECORD_BYTES + "字节");
+        } catch (IOException e) {
+            throw new GlobalException("读取点击事件失败: " + e.getMessage());
+        }
+        return ingestion.finish();
+    }
+
+    private record Event(Long bookId, long count, long timestamp) {
+    }
+
+    /**
+     * 一次导入的合并状态
+     */
+    private class Ingestion {
+        private final long begin = System.currentTimeMillis();
+        private final BatchAggregator aggregator = new BatchAggregator();
+        private final int chunkSize = rankProperties.getIngest().getChunkSize();
+        private final List<Event> pending = new ArrayList<>();
+        private long events;
+        private long skipped;
+        private long commands;
+
+        void accept(Long bookId, long count, long timestamp) {
+            events++;
+            if (bookId == null || bookId <= 0 || count <= 0 || timestamp > System.currentTimeMillis() + MAX_CLOCK_SKEW_MS) {
+                skipped++;
+                return;
+            }
+            pending.add(new Event(bookId, count, timestamp));
+            if (pending.size() >= chunkSize) {
+                aggregate();
+            }
+        }
+
+        ClickIngestResult finish() {
+            aggregate();
+            flush();
+            long elapsed = System.currentTimeMillis() - begin;
+            log.info("导入{}条点击事件，跳过{}条，写入{}条命令，耗时{}ms", events, skipped, commands, elapsed);
+            return new ClickIngestResult(events, skipped, commands, elapsed);
+        }
+
+        /**
+         * 一次批量查出这批事件的作者，再生成各排行榜的命令
+         */
+        private void aggregate() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<Long, Long> authorIds = rankProperties.getAuthor().isEnabled()
+                    ? authorCache.authorIds(pending.stream().map(Event::bookId).collect(Collectors.toSet()))
+                    : Map.of();
+            for (Event event : pending) {
+                LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(event.timestamp()), ZoneId.systemDefault());
+                aggregator.add(clickService.clickBatch(event.bookId(), event.count(), time, authorIds.get(event.bookId())));
+                if (aggregator.size() >= chunkSize) {
+                    flush();
+                }
+            }
+            pending.clear();
+        }
+
+        private void flush() {
+            if (aggregator.isEmpty()) {
+                return;
+            }
+            long now = System.currentTimeMillis() / 1000;
+            Map<String, Boolean> live = new HashMap<>();
+            RedisBatch batch = aggregator.toBatch(key -> live.computeIfAbsent(key, k -> {
+                // 已过保留期的分桶不再写入，否则会被当作新的key重新创建
+                Long deadline = bucketExpiryService.deadline(k);
+                return deadline == null || deadline > now;
+            }));
+            addRollingIncrements(batch, live);
+            redisZSet.execute("ingest", batch);
+            commands += batch.size();
+            aggregator.clear();
+        }
+
+        /**
+         * 小时桶已经滚入某个滚动窗口时，把增量同时加到该窗口的排行榜上
+         */
+        private void addRollingIncrements(RedisBatch batch, Map<String, Boolean> live) {
+            List<Integer> windows = rankProperties.getRolling().getWindows();
+            List<String> cursors = stringRedisTemplate.opsForValue().multiGet(
+                    windows.stream().map(RedisConstant::getRollingCursorKey).toList());
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHH");
+            for (int i = 0; i < windows.size(); i++) {
+                String cursor = cursors == null ? null : cursors.get(i);
+                if (cursor == null) {
+                    // 窗口还没有建立，第一次滚动时会从小时桶重建
+                    continue;
+                }
+                int hours = windows.get(i);
+                LocalDateTime latest = LocalDateTime.parse(cursor, formatter);
+                LocalDateTime earliest = latest.minusHours(hours);
+                String rollingKey = RedisConstant.getRollingSortKey(hours);
+                aggregator.getIncrements().forEach((member, delta) -> {
+                    String key = member.key();
+                    if (!key.startsWith(RedisConstant.SORT_HOUR_PREFIX) || !Boolean.TRUE.equals(live.get(key))) {
+                        return;
+                    }
+                    LocalDateTime hour = LocalDateTime.parse(key.substring(RedisConstant.SORT_HOUR_PREFIX.length()), formatter);
+                    if (!hour.isAfter(latest) && hour.isAfter(earliest)) {
+                        batch.incrementScore(rollingKey, member.member(), delta);
+                    }
+                });
+            }
+        }
+    }
+}
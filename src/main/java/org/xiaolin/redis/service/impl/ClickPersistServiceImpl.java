@@ -0,0 +1,221 @@
+package org.xiaolin.redis.service.impl;
+
+import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScoredValueScanCursor;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.logging.LogFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.mapper.BookMapper;
+import org.xiaolin.redis.metrics.RankMetrics;
+import org.xiaolin.redis.service.ClickPersistService;
+import org.xiaolin.redis.utils.LongRedisSerializer;
+import org.xiaolin.redis.utils.ShardedBoard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author xlxing
+ * @Description 点击量持久化到MySQL，只执行UPDATE book SET click_num = ?，不预先读取整行
+ * @create 2026/10/17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClickPersistServiceImpl implements ClickPersistService {
+
+    private static final RedisScript<Long> DIRTY_SWAP_SCRIPT =
+            RedisScript.of(new ClassPathResource("lua/dirty_swap.lua"), Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RankProperties rankProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final RankMetrics rankMetrics;
+
+    private final ShardedBoard shardedBoard;
+
+    @Override
+    public void persistAll() {
+        String sortKey = RedisConstant.getSortKey();
+        String cursorKey = RedisConstant.PERSIST_CURSOR_KEY;
+        int chunkSize = rankProperties.getPersist().getChunkSize();
+        List<String> shardKeys = shardedBoard.shardKeys(sortKey);
+
+        // 游标格式为"分片序号:ZSCAN游标"，未分片时只有ZSCAN游标
+        String saved = stringRedisTemplate.opsForValue().get(cursorKey);
+        int shard = 0;
+        ScanCursor cursor = ScanCursor.INITIAL;
+        if (saved != null) {
+            int separator = saved.indexOf(':');
+            shard = separator < 0 ? 0 : Integer.parseInt(saved.substring(0, separator));
+            cursor = ScanCursor.of(saved.substring(separator + 1));
+            if (shard >= shardKeys.size()) {
+                // 保存游标之后分片数变少了，从头开始
+                shard = 0;
+                cursor = ScanCursor.INITIAL;
+            }
+            log.info("从游标{}继续持久化{}", saved, sortKey);
+        }
+        long begin = System.currentTimeMillis();
+        long persisted = 0;
+        for (; shard < shardKeys.size(); shard++, cursor = ScanCursor.INITIAL) {
+            while (true) {
+                if (isFenced()) {
+                    log.warn("排行榜正在从MySQL重建，暂停持久化{}，下次从游标继续", sortKey);
+                    return;
+                }
+                ScoredValueScanCursor<byte[]> page = zscan(shardKeys.get(shard), cursor, chunkSize);
+                List<Map.Entry<Long, Integer>> clickNums = new ArrayList<>(page.getValues().size());
+                for (ScoredValue<byte[]> value : page.getValues()) {
+                    clickNums.add(Map.entry(parseBookId(value.getValue()), toClickNum(value.getScore())));
+                }
+                updateClickNums(clickNums);
+                persisted += clickNums.size();
+
+                if (page.isFinished()) {
+                    break;
+                }
+                cursor = page;
+                String position = shardKeys.size() > 1 ? shard + ":" + page.getCursor() : page.getCursor();
+                stringRedisTemplate.opsForValue().set(cursorKey, position);
+                log.info("已持久化{}本书籍的点击量，游标{}", persisted, position);
+            }
+            if (shard + 1 < shardKeys.size()) {
+                stringRedisTemplate.opsForValue().set(cursorKey, (shard + 1) + ":" + ScanCursor.INITIAL.getCursor());
+            }
+        }
+        stringRedisTemplate.delete(cursorKey);
+        rankMetrics.markPersisted();
+        log.info("持久化{}完成，共{}本书籍，耗时{}ms", sortKey, persisted, System.currentTimeMillis() - begin);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${rank.persist.dirty-interval-ms:300000}")
+    public void persistDirty() {
+        if (!rankProperties.getPersist().isDirtyEnabled()) {
+            return;
+        }
+        if (isFenced()) {
+            log.info("排行榜正在从MySQL重建，跳过增量持久化");
+            return;
+        }
+        String processingKey = RedisConstant.DIRTY_PROCESSING_KEY;
+        Long swapped = stringRedisTemplate.execute(DIRTY_SWAP_SCRIPT,
+                List.of(RedisConstant.DIRTY_SET_KEY, processingKey));
+        if (!Long.valueOf(1L).equals(swapped)) {
+            // 没有待持久化的书籍
+            rankMetrics.markPersisted();
+            return;
+        }
+
+        String sortKey = RedisConstant.getSortKey();
+        int chunkSize = rankProperties.getPersist().getChunkSize();
+        long begin = System.currentTimeMillis();
+        long persisted = 0;
+        List<String> bookIds = new ArrayList<>(chunkSize);
+        try (Cursor<String> cursor = stringRedisTemplate.opsForSet()
+                .scan(processingKey, ScanOptions.scanOptions().count(chunkSize).build())) {
+            while (cursor.hasNext()) {
+                bookIds.add(cursor.next());
+                if (bookIds.size() == chunkSize || !cursor.hasNext()) {
+                    if (isFenced()) {
+                        // 保留处理中集合，重建完成后的下一次增量持久化先处理它
+                        log.info("排行榜正在从MySQL重建，中止增量持久化，已持久化{}本", persisted);
+                        return;
+                    }
+                    persisted += persistScores(sortKey, bookIds);
+                    bookIds.clear();
+                }
+            }
+        }
+        stringRedisTemplate.unlink(processingKey);
+        rankMetrics.markPersisted();
+        log.info("增量持久化{}本书籍的点击量，耗时{}ms", persisted, System.currentTimeMillis() - begin);
+    }
+
+    /**
+     * 每写一批之前检查，重建开始后最多再写入一批
+     */
+    private boolean isFenced() {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisConstant.REBUILD_FENCE_KEY));
+    }
+
+    /**
+     * 每个分片一次ZMSCORE取回这批书籍的点击量并写入数据库
+     */
+    private int persistScores(String sortKey, List<String> bookIds) {
+        Map<String, List<String>> byShard = new LinkedHashMap<>();
+        for (String bookId : bookIds) {
+            byShard.computeIfAbsent(shardedBoard.shardKey(sortKey, Long.valueOf(bookId)), k -> new ArrayList<>()).add(bookId);
+        }
+        List<Map.Entry<Long, Integer>> clickNums = new ArrayList<>(bookIds.size());
+        byShard.forEach((shardKey, ids) -> {
+            List<Double> scores = stringRedisTemplate.opsForZSet().score(shardKey, ids.toArray());
+            for (int i=0; i<ids.size(); i++) {
+                Double score = scores == null ? null : scores.get(i);
+                if (score != null) {
+                    clickNums.add(Map.entry(Long.valueOf(ids.get(i)), toClickNum(score)));
+                }
+            }
+        });
+        updateClickNums(clickNums);
+        return clickNums.size();
+    }
+
+    /**
+     * JDBC批量执行UPDATE book SET click_num = ? WHERE id = ?，每个分块一个事务
+     * @param clickNums 书籍主键 -> 点击量
+     */
+    void updateClickNums(List<Map.Entry<Long, Integer>> clickNums) {
+        if (clickNums.isEmpty()) {
+            return;
+        }
+        rankMetrics.mysql("update_click_num", () -> transactionTemplate.execute(status ->
+                SqlHelper.executeBatch(Book.class, LogFactory.getLog(ClickPersistServiceImpl.class), clickNums,
+                        rankProperties.getPersist().getChunkSize(),
+                        (sqlSession, entry) -> sqlSession.getMapper(BookMapper.class).updateClickNum(entry.getKey(), entry.getValue()))));
+    }
+
+    private ScoredValueScanCursor<byte[]> zscan(String key, ScanCursor cursor, int count) {
+        return stringRedisTemplate.execute((RedisCallback<ScoredValueScanCursor<byte[]>>) connection -> {
+            @SuppressWarnings("unchecked")
+            RedisClusterAsyncCommands<byte[], byte[]> commands =
+                    (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            return LettuceFutures.awaitOrCancel(
+                    commands.zscan(key.getBytes(StandardCharsets.UTF_8), cursor, ScanArgs.Builder.limit(count)),
+                    1, TimeUnit.MINUTES);
+        });
+    }
+
+    static Long parseBookId(byte[] member) {
+        return LongRedisSerializer.INSTANCE.deserialize(member);
+    }
+
+    static Integer toClickNum(double score) {
+        return (int) Math.min(Math.max(score, 0), Integer.MAX_VALUE);
+    }
+}
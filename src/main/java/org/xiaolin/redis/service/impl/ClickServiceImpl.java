@@ -0,0 +1,168 @@
+package org.xiaolin.redis.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.xiaolin.redis.cache.AuthorCache;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.service.BucketExpiryService;
+import org.xiaolin.redis.service.ClickService;
+import org.xiaolin.redis.service.TrendingService;
+import org.xiaolin.redis.utils.ClickBuffer;
+import org.xiaolin.redis.utils.ClickQueue;
+import org.xiaolin.redis.utils.RedisBatch;
+import org.xiaolin.redis.utils.RedisZSet;
+import org.xiaolin.redis.utils.ShardedBoard;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * @author xlxing
+ * @Description 书籍点击记录，根据rank.click.mode直接写入、合并后写入或放入异步队列后写入Redis
+ * @create 2026/10/17
+ */
+@Service
+@RequiredArgsConstructor
+public class ClickServiceImpl implements ClickService {
+
+    private final RedisZSet redisZSet;
+
+    private final ClickBuffer clickBuffer;
+
+    private final ClickQueue clickQueue;
+
+    private final RankProperties rankProperties;
+
+    private final BucketExpiryService bucketExpiryService;
+
+    private final ShardedBoard shardedBoard;
+
+    private final TrendingService trendingService;
+
+    private final AuthorCache authorCache;
+
+    @Override
+    public void recordClick(Long bookId) {
+        recordClick(bookId, null);
+    }
+
+    @Override
+    public void recordClick(Long bookId, String readerId) {
+        trendingService.record(bookId);
+        RedisBatch batch = readerBatch(bookId, readerId, LocalDateTime.now());
+        switch (rankProperties.getClick().getMode()) {
+            case BUFFERED -> clickBuffer.add(batch);
+            case ASYNC -> clickQueue.offer(batch);
+            default -> redisZSet.execute("click", batch);
+        }
+    }
+
+    @Override
+    public Mono<Void> recordClickReactive(Long bookId) {
+        return recordClickReactive(bookId, null);
+    }
+
+    @Override
+    public Mono<Void> recordClickReactive(Long bookId, String readerId) {
+        trendingService.record(bookId);
+        RedisBatch batch = readerBatch(bookId, readerId, LocalDateTime.now());
+        switch (rankProperties.getClick().getMode()) {
+            case BUFFERED -> {
+                // 只在本地累加，不访问Redis也不等待刷新：提前刷新在后台线程执行，缓冲区已满时丢弃
+                clickBuffer.add(batch);
+                return Mono.empty();
+            }
+            case ASYNC -> {
+                // 事件循环线程不能阻塞，队列已满时总是丢弃
+                clickQueue.tryOffer(batch);
+                return Mono.empty();
+            }
+            default -> {
+                return redisZSet.executeReactive("click", batch);
+            }
+        }
+    }
+
+    /**
+     * 带有读者标识时，在点击的批量命令中加入当天的HyperLogLog，
+     * 同一读者重复阅读不改变基数，每本书每天的HyperLogLog最多约12KB
+     */
+    private RedisBatch readerBatch(Long bookId, String readerId, LocalDateTime time) {
+        RedisBatch batch = clickBatch(bookId, 1, time);
+        if (readerId == null || readerId.isBlank() || !rankProperties.getUnique().isEnabled()) {
+            return batch;
+        }
+        String hllKey = RedisConstant.getUniqueHllKey(time, bookId);
+        String touchedKey = RedisConstant.getUniqueTouchedKey(time);
+        batch.addToHyperLogLog(hllKey, readerId)
+                .addToSet(touchedKey, bookId);
+        // HyperLogLog的key数量与书籍数相同，不放入已设置过期时间的key集合，每次直接带上EXPIREAT
+        Long deadline = bucketExpiryService.deadline(hllKey);
+        if (deadline != null) {
+            batch.expireAt(hllKey, deadline);
+        }
+        bucketExpiryService.arm(batch, touchedKey);
+        return batch;
+    }
+
+    /**
+     * 点击需要更新的全部排行榜，合并为一次网络往返
+     */
+    @Override
+    public RedisBatch clickBatch(Long bookId, long count, LocalDateTime time) {
+        Long authorId = rankProperties.getAuthor().isEnabled() ? authorCache.authorId(bookId) : null;
+        return clickBatch(bookId, count, time, authorId);
+    }
+
+    @Override
+    public RedisBatch clickBatch(Long bookId, long count, LocalDateTime time, Long authorId) {
+        Duration duration = Duration.between(RedisConstant.getSmoothSortDateTime(time), time);
+        String hourKey = RedisConstant.getSortHourKey(time);
+        String dayKey = RedisConstant.getSortDayKey(time);
+        String smoothKey = RedisConstant.getSmoothSortKey(time);
+        RedisBatch batch = new RedisBatch()
+                // 总的排行榜，分片时只写书籍所在的分片
+                .incrementScore(shardedBoard.shardKey(RedisConstant.getSortKey(), bookId), bookId, count)
+                // 点击时间所在小时的排行榜
+                .incrementScore(hourKey, bookId, count)
+                // 点击时间所在当天的排行榜
+                .incrementScore(dayKey, bookId, count)
+                // Smooth排行榜
+                .incrementScore(smoothKey, bookId, count * duration.getSeconds() * RedisConstant.BETA);
+        // 分桶排行榜第一次写入时设置过期时间
+        bucketExpiryService.arm(batch, hourKey);
+        bucketExpiryService.arm(batch, dayKey);
+        bucketExpiryService.arm(batch, smoothKey);
+        // 作者的书籍排行榜与作者排行榜
+        if (rankProperties.getAuthor().isEnabled() && authorId != null) {
+            batch.incrementScore(RedisConstant.getAuthorSortKey(authorId), bookId, count)
+                    .incrementScore(RedisConstant.AUTHORS_SORT_KEY, authorId, count);
+        }
+        // 待持久化的书籍
+        if (rankProperties.getPersist().isDirtyEnabled()) {
+            batch.addToSet(RedisConstant.DIRTY_SET_KEY, bookId);
+        }
+        // 指数衰减排行榜
+        RankProperties.Decay decay = rankProperties.getDecay();
+        if (decay.isEnabled()) {
+            batch.logAddScore(RedisConstant.getDecaySortKey(), bookId, decayScore(time, decay.getHalfLife()) + Math.log(count));
+        }
+        return batch;
+    }
+
+    /**
+     * 一次点击在对数空间中的增量。热度 = sum(exp(-ln2 * (now - t) / halfLife))，
+     * 两边同乘exp(ln2 * (now - epoch) / halfLife)后排序不变，每次点击只需加上exp(ln2 * (t - epoch) / halfLife)，
+     * 取对数后保存即可避免溢出
+     * @param time 点击时间
+     * @param halfLife 半衰期
+     * @return 对数增量
+     */
+    private static double decayScore(LocalDateTime time, Duration halfLife) {
+        double seconds = Duration.between(RedisConstant.DECAY_EPOCH, time).toMillis() / 1000.0;
+        return Math.log(2) * seconds / halfLife.toSeconds();
+    }
+}
@@ -0,0 +1,107 @@
+package org.xiaolin.redis.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.metrics.RankMetrics;
+import org.xiaolin.redis.service.BucketExpiryService;
+import org.xiaolin.redis.service.EngagementService;
+import org.xiaolin.redis.utils.RedisBatch;
+import org.xiaolin.redis.utils.RedisZSet;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 点赞、评论与点击一样按天分桶计数。综合排行榜book:engagement:yyyyMMdd由定时任务对当天的
+ * 点击日榜、点赞、评论三个分桶执行一次带权ZUNIONSTORE得到，ZUNIONSTORE整体替换目标key，
+ * 查询时读到的总是某一次完整合并的结果，请求中不做多key合并
+ * @author xlxing
+ * @Description 点赞、评论与综合排行榜
+ * @create 2026/10/17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EngagementServiceImpl implements EngagementService {
+
+    private final RedisZSet redisZSet;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RankProperties rankProperties;
+
+    private final BucketExpiryService bucketExpiryService;
+
+    private final RankMetrics rankMetrics;
+
+    @Override
+    public void record(Long bookId, Type type) {
+        redisZSet.execute("engagement", engagementBatch(bookId, type, LocalDateTime.now()));
+    }
+
+    @Override
+    public Mono<Void> recordReactive(Long bookId, Type type) {
+        return redisZSet.executeReactive("engagement", engagementBatch(bookId, type, LocalDateTime.now()));
+    }
+
+    private RedisBatch engagementBatch(Long bookId, Type type, LocalDateTime time) {
+        String key = switch (type) {
+            case LIKE -> RedisConstant.getLikeDayKey(time);
+            case COMMENT -> RedisConstant.getCommentDayKey(time);
+        };
+        RedisBatch batch = new RedisBatch().incrementScore(key, bookId, 1);
+        bucketExpiryService.arm(batch, key);
+        return batch;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${rank.engagement.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!rankProperties.getEngagement().isEnabled()) {
+            return;
+        }
+        rankMetrics.job("engagement_refresh", () -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (now.getHour() == 0) {
+                // 前一天最后一次合并之后的点击与互动
+                refresh(now.minusDays(1));
+            }
+            refresh(now);
+        });
+    }
+
+    @Override
+    public long refresh(LocalDateTime day) {
+        RankProperties.Engagement engagement = rankProperties.getEngagement();
+        String sortKey = RedisConstant.getEngagementSortKey(day);
+        List<String> sources = List.of(RedisConstant.getSortDayKey(day), RedisConstant.getLikeDayKey(day),
+                RedisConstant.getCommentDayKey(day));
+        Weights weights = Weights.of(engagement.getClickWeight(), engagement.getLikeWeight(), engagement.getCommentWeight());
+        Long deadline = bucketExpiryService.deadline(sortKey);
+        RedisSerializer<String> keySerializer = RedisSerializer.string();
+        List<Object> replies = rankMetrics.redis("union", RankMetrics.board(sortKey),
+                () -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    RedisZSetCommands commands = connection.zSetCommands();
+                    commands.zUnionStore(keySerializer.serialize(sortKey), Aggregate.SUM, weights,
+                            sources.stream().map(keySerializer::serialize).toArray(byte[][]::new));
+                    if (deadline != null) {
+                        connection.keyCommands().expireAt(keySerializer.serialize(sortKey), deadline);
+                    }
+                    return null;
+                }));
+        Long size = (Long) replies.get(0);
+        log.debug("合并综合排行榜{}，书籍{}本", sortKey, size);
+        return size == null ? 0 : size;
+    }
+}
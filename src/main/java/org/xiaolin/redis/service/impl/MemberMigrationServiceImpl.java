@@ -0,0 +1,105 @@
+package org.xiaolin.redis.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Service;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.service.MemberMigrationService;
+import org.xiaolin.redis.utils.LongRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * @author xlxing
+ * @Description 排行榜成员编码迁移，rank.migration.member-encoding=true时在启动时执行一次
+ * @create 2026/10/17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemberMigrationServiceImpl implements MemberMigrationService, ApplicationRunner {
+
+    private static final RedisScript<Long> MEMBER_RENAME_SCRIPT =
+            RedisScript.of(new ClassPathResource("lua/member_rename.lua"), Long.class);
+
+    private static final int SCAN_COUNT = 1000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RankProperties rankProperties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (rankProperties.getMigration().isMemberEncoding()) {
+            migrate();
+        }
+    }
+
+    @Override
+    public long migrate() {
+        long begin = System.currentTimeMillis();
+        long migrated = 0;
+        for (DataType type : List.of(DataType.ZSET, DataType.SET)) {
+            try (Cursor<String> keys = stringRedisTemplate.scan(
+                    ScanOptions.scanOptions().match("book:*").type(type).count(SCAN_COUNT).build())) {
+                while (keys.hasNext()) {
+                    migrated += migrate(keys.next(), type);
+                }
+            }
+        }
+        log.info("排行榜成员编码迁移完成，改写{}个成员，耗时{}ms", migrated, System.currentTimeMillis() - begin);
+        return migrated;
+    }
+
+    private long migrate(String key, DataType type) {
+        String logSpace = RedisConstant.DECAY_SORT_KEY.equals(key) ? "1" : "0";
+        ScanOptions options = ScanOptions.scanOptions().count(SCAN_COUNT).build();
+        long migrated = 0;
+        // 改写过程中集合会变化，SCAN可能重复返回成员，脚本对已不存在的旧成员不做任何事
+        if (type == DataType.ZSET) {
+            try (Cursor<ZSetOperations.TypedTuple<String>> members = stringRedisTemplate.opsForZSet().scan(key, options)) {
+                while (members.hasNext()) {
+                    migrated += rename(key, members.next().getValue(), logSpace);
+                }
+            }
+        } else {
+            try (Cursor<String> members = stringRedisTemplate.opsForSet().scan(key, options)) {
+                while (members.hasNext()) {
+                    migrated += rename(key, members.next(), logSpace);
+                }
+            }
+        }
+        if (migrated > 0) {
+            log.info("{}改写{}个成员", key, migrated);
+        }
+        return migrated;
+    }
+
+    private long rename(String key, String member, String logSpace) {
+        byte[] bytes = member.getBytes(StandardCharsets.UTF_8);
+        if (LongRedisSerializer.isCanonical(bytes)) {
+            return 0;
+        }
+        Long bookId;
+        try {
+            bookId = LongRedisSerializer.INSTANCE.deserialize(bytes);
+        } catch (SerializationException e) {
+            log.warn("{}中无法识别的成员{}，跳过", key, member);
+            return 0;
+        }
+        Long renamed = stringRedisTemplate.execute(MEMBER_RENAME_SCRIPT, List.of(key), member, bookId.toString(), logSpace);
+        return renamed == null ? 0 : renamed;
+    }
+}
@@ -0,0 +1,151 @@
+package org.xiaolin.redis.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.stereotype.Service;
+import org.xiaolin.redis.cache.BookCache;
+import org.xiaolin.redis.cache.BookIdFilter;
+import org.xiaolin.redis.cache.RankSnapshotCache;
+import org.xiaolin.redis.common.resp.R;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.exception.GlobalException;
+import org.xiaolin.redis.metrics.RankMetrics;
+import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.service.ClickService;
+import org.xiaolin.redis.service.EngagementService;
+import org.xiaolin.redis.service.ReactiveBookService;
+import org.xiaolin.redis.utils.ShardedBoard;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * @author xlxing
+ * @Description 响应式的书籍查阅与排行榜查询。本地缓存命中时全程在事件循环线程上完成，
+ * 只有缓存未命中的数据库查询切换到有界的数据库线程池
+ * @create 2026/10/17
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    private final BookService bookService;
+
+    private final ClickService clickService;
+
+    private final EngagementService engagementService;
+
+    private final BookCache bookCache;
+
+    private final BookIdFilter bookIdFilter;
+
+    private final RankSnapshotCache rankSnapshotCache;
+
+    private final RankProperties rankProperties;
+
+    private final RankMetrics rankMetrics;
+
+    private final ShardedBoard shardedBoard;
+
+    private final Scheduler bookDbScheduler;
+
+    @Override
+    public Mono<R<Book>> getBook(Long bookId, String readerId) {
+        return book(bookId)
+                .switchIfEmpty(Mono.error(() -> new GlobalException("Book not found: "+bookId)))
+                .flatMap(b -> clickService.recordClickReactive(bookId, readerId)
+                        .onErrorResume(ReactiveBookServiceImpl::isRedisUnavailable, e -> {
+                            // Redis不可用时仍然返回书籍，点击只计入本地的热门统计
+                            rankMetrics.degraded("click");
+                            return Mono.empty();
+                        })
+                        .thenReturn(R.ok(b)));
+    }
+
+    @Override
+    public Mono<R<Void>> engageBook(Long bookId, EngagementService.Type type) {
+        return book(bookId)
+                .switchIfEmpty(Mono.error(() -> new GlobalException("Book not found: "+bookId)))
+                .flatMap(b -> engagementService.recordReactive(bookId, type))
+                .then(Mono.fromSupplier(R::ok));
+    }
+
+    @Override
+    public Mono<R<List<Book>>> rank(Integer start, Integer end, String sortKey) {
+        RankProperties.Snapshot snapshot = rankProperties.getSnapshot();
+        if (snapshot.isEnabled() && start >= 0 && end >= start && end < snapshot.getSize()) {
+            List<Book> books = rankSnapshotCache.peek(sortKey, start, end);
+            if (books != null) {
+                return Mono.just(R.ok(books));
+            }
+            // 快照过期，由阻塞实现单飞刷新
+            return blocking(() -> bookService.rankByKey(start, end, sortKey));
+        }
+        return rankMetrics.redis("range", RankMetrics.board(sortKey), shardedBoard.reverseRangeReactive(sortKey, start, end))
+                .onErrorMap(ReactiveBookServiceImpl::isRedisUnavailable, RankUnavailableException::new)
+                .flatMap(this::listByIdsInOrder)
+                .map(R::ok)
+                .onErrorResume(RankUnavailableException.class, e -> blocking(() -> bookService.rankFallback(start, end, sortKey)));
+    }
+
+    /**
+     * 本地缓存命中或布隆过滤器判定不存在时不切换线程
+     */
+    private Mono<Book> book(Long bookId) {
+        Book cached = bookCache.getIfPresent(bookId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return bookIdFilter.mightExist(bookId) ? blocking(() -> bookCache.get(bookId)) : Mono.empty();
+    }
+
+    @Override
+    public <T> Mono<T> blocking(Callable<T> callable) {
+        return Mono.fromCallable(callable).subscribeOn(bookDbScheduler);
+    }
+
+    private static boolean isRedisUnavailable(Throwable e) {
+        return e instanceof RedisConnectionFailureException || e instanceof RedisSystemException
+                || e instanceof QueryTimeoutException;
+    }
+
+    /**
+     * 只标记Redis读取失败，数据库查询失败不降级
+     */
+    private static class RankUnavailableException extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        RankUnavailableException(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * 全部命中本地缓存时不切换线程，否则在数据库线程池中合并为一次IN查询
+     */
+    private Mono<List<Book>> listByIdsInOrder(List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        Map<Long, Book> cached = bookCache.getAllPresent(bookIds);
+        Mono<Map<Long, Book>> bookMap = cached.size() == bookIds.size()
+                ? Mono.just(cached)
+                : blocking(() -> bookCache.getAll(bookIds));
+        return bookMap.map(books -> bookIds
+                .stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+}
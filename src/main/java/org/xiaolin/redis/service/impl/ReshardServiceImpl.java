@@ -0,0 +1,202 @@
+package org.xiaolin.redis.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.metrics.RankMetrics;
+import org.xiaolin.redis.service.ReshardService;
+import org.xiaolin.redis.utils.RedisBatch;
+import org.xiaolin.redis.utils.RedisZSet;
+import org.xiaolin.redis.utils.ShardedBoard;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 新旧分片可能位于不同的slot，无法用一个脚本原子地移动成员。这里对每个成员在新分片上ZINCRBY score、
+ * 在旧分片上ZINCRBY -score，迁移期间写入旧分片的点击会留在旧分片上，由下一轮SCAN继续迁移。
+ * rank.shard.reshard-from大于0时在启动时以及每rank.shard.reshard-check-interval-ms执行，多个实例之间用SET NX互斥。
+ * 旧排布独有的分片全部清空后才记录完成标记：滚动发布期间旧版本实例仍在向旧分片写点击，
+ * 这些点击会由之后的检查发现并迁走
+ * @author xlxing
+ * @Description 排行榜重新分片
+ * @create 2026/10/17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReshardServiceImpl implements ReshardService, ApplicationRunner {
+
+    private static final int SCAN_COUNT = 1000;
+
+    /**
+     * 最多SCAN几轮旧分片，仍有剩余时留给下次迁移
+     */
+    private static final int MAX_PASSES = 3;
+
+    /**
+     * 锁的过期时间，每写入一批刷新一次，实例中途退出时锁自行释放
+     */
+    private static final Duration LOCK_TTL = Duration.ofMinutes(10);
+
+    /**
+     * 完成标记的保留时间，之后再做相同的迁移不会被跳过
+     */
+    private static final Duration DONE_TTL = Duration.ofDays(7);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("lua/lock_release.lua"), Long.class);
+
+    private final RedisTemplate<String, Long> rankRedisTemplate;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisZSet redisZSet;
+
+    private final ShardedBoard shardedBoard;
+
+    private final RankProperties rankProperties;
+
+    private final RankMetrics rankMetrics;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int from = rankProperties.getShard().getReshardFrom();
+        if (from > 0) {
+            rankMetrics.job("reshard", () -> reshardOnce(RedisConstant.getSortKey(), from, shardedBoard.count()));
+        }
+    }
+
+    /**
+     * 旧版本实例全部下线、rank.shard.reshard-from改回0之前，定期迁走写入旧分片的点击
+     */
+    @Scheduled(fixedDelayString = "${rank.shard.reshard-check-interval-ms:60000}", initialDelayString = "${rank.shard.reshard-check-interval-ms:60000}")
+    public void check() {
+        run(null);
+    }
+
+    @Override
+    public long reshardOnce(String board, int fromCount, int toCount) {
+        String lockKey = RedisConstant.getReshardLockKey(board, fromCount, toCount);
+        String doneKey = lockKey + ":done";
+        String token = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(lockKey, token, LOCK_TTL))) {
+            log.info("其他实例正在把{}从{}个分片迁移到{}个分片，跳过", board, fromCount, toCount);
+            return 0;
+        }
+        try {
+            // 加锁之后再检查，其他实例可能刚刚完成并释放了锁。标记存在但旧分片又有成员时，说明旧版本实例仍在写入
+            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(doneKey)) && remaining(board, fromCount, toCount) == 0) {
+                log.debug("{}从{}个分片到{}个分片的迁移已经完成，跳过", board, fromCount, toCount);
+                return 0;
+            }
+            long moved = reshard(board, fromCount, toCount, lockKey);
+            long remaining = remaining(board, fromCount, toCount);
+            if (remaining == 0) {
+                stringRedisTemplate.opsForValue().set(doneKey, String.valueOf(System.currentTimeMillis()), DONE_TTL);
+            } else {
+                stringRedisTemplate.delete(doneKey);
+                log.info("{}的旧分片仍有{}个成员，等待下次检查", board, remaining);
+            }
+            return moved;
+        } finally {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), token);
+        }
+    }
+
+    @Override
+    public long reshard(String board, int fromCount, int toCount) {
+        return reshard(board, fromCount, toCount, null);
+    }
+
+    /**
+     * @param lockKey 持有的锁，每批写入后刷新过期时间，不加锁执行时为null
+     */
+    private long reshard(String board, int fromCount, int toCount, String lockKey) {
+        long begin = System.currentTimeMillis();
+        List<String> sources = ShardedBoard.shardKeys(board, fromCount);
+        List<String> targets = ShardedBoard.shardKeys(board, toCount);
+        Set<String> targetKeys = new HashSet<>(targets);
+        long moved = 0;
+        for (String source : sources) {
+            for (int pass = 0; pass < MAX_PASSES; pass++) {
+                moved += move(source, targets, lockKey);
+                if (targetKeys.contains(source)) {
+                    // 同时也是新排布中的分片，留下的都是本就属于它的成员
+                    break;
+                }
+                Long remaining = rankRedisTemplate.opsForZSet().zCard(source);
+                if (remaining == null || remaining == 0) {
+                    break;
+                }
+                log.info("{}仍有{}个成员，继续迁移", source, remaining);
+            }
+        }
+        log.info("{}从{}个分片迁移到{}个分片，迁移{}个成员，耗时{}ms",
+                board, fromCount, toCount, moved, System.currentTimeMillis() - begin);
+        return moved;
+    }
+
+    /**
+     * @return 只属于旧排布的分片中剩余的成员数。新旧排布共用的分片无法用ZCARD判断，
+     * 旧版本实例按书籍均匀写入各分片，只要还在写入，旧排布独有的分片也会有成员，随后的迁移会一并处理共用分片
+     */
+    private long remaining(String board, int fromCount, int toCount) {
+        Set<String> targetKeys = new HashSet<>(ShardedBoard.shardKeys(board, toCount));
+        long remaining = 0;
+        for (String source : ShardedBoard.shardKeys(board, fromCount)) {
+            if (!targetKeys.contains(source)) {
+                Long size = rankRedisTemplate.opsForZSet().zCard(source);
+                remaining += size == null ? 0 : size;
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * SCAN一遍旧分片，把不属于该分片的成员按分数转移到新分片，最后删除分数已归零的成员
+     */
+    private long move(String source, List<String> targets, String lockKey) {
+        long moved = 0;
+        RedisBatch batch = new RedisBatch();
+        try (Cursor<ZSetOperations.TypedTuple<Long>> members = rankRedisTemplate.opsForZSet()
+                .scan(source, ScanOptions.scanOptions().count(SCAN_COUNT).build())) {
+            while (members.hasNext()) {
+                ZSetOperations.TypedTuple<Long> member = members.next();
+                Long bookId = member.getValue();
+                double score = member.getScore() == null ? 0 : member.getScore();
+                String target = targets.get(targets.size() == 1 ? 0 : ShardedBoard.shardIndex(bookId, targets.size()));
+                if (target.equals(source) || score == 0) {
+                    continue;
+                }
+                batch.incrementScore(target, bookId, score).incrementScore(source, bookId, -score);
+                moved++;
+                if (batch.size() >= 2 * SCAN_COUNT) {
+                    redisZSet.execute("reshard", batch);
+                    batch = new RedisBatch();
+                    if (lockKey != null) {
+                        stringRedisTemplate.expire(lockKey, LOCK_TTL);
+                    }
+                }
+            }
+        }
+        redisZSet.execute("reshard", batch);
+        rankRedisTemplate.opsForZSet().removeRangeByScore(source, Double.NEGATIVE_INFINITY, 0);
+        return moved;
+    }
+}
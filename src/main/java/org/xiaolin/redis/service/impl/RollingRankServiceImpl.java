@@ -0,0 +1,109 @@
+package org.xiaolin.redis.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.exception.GlobalException;
+import org.xiaolin.redis.service.BucketExpiryService;
+import org.xiaolin.redis.service.RollingRankService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 滚动窗口 = 最近N个已关闭小时桶之和。每小时用一次带权ZUNIONSTORE加上新关闭的小时桶、减去移出窗口的小时桶，
+ * 而不是重新合并N个小时桶。游标记录窗口包含到的小时，多个实例同时推进时只有一个会成功
+ * @author xlxing
+ * @Description 最近N小时滚动窗口排行榜
+ * @create 2026/10/17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RollingRankServiceImpl implements RollingRankService {
+
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    private static final RedisScript<Long> STEP_SCRIPT =
+            RedisScript.of(new ClassPathResource("lua/rolling_step.lua"), Long.class);
+
+    private static final RedisScript<Long> REBUILD_SCRIPT =
+            RedisScript.of(new ClassPathResource("lua/rolling_rebuild.lua"), Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RankProperties rankProperties;
+
+    private final BucketExpiryService bucketExpiryService;
+
+    @Override
+    @Scheduled(cron = "5 0 * * * ?")
+    public void roll() {
+        LocalDateTime latestClosed = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        for (Integer hours : rankProperties.getRolling().getWindows()) {
+            roll(hours, latestClosed);
+        }
+    }
+
+    private void roll(int hours, LocalDateTime latestClosed) {
+        String sortKey = RedisConstant.getRollingSortKey(hours);
+        String cursorKey = RedisConstant.getRollingCursorKey(hours);
+        String cursor = stringRedisTemplate.opsForValue().get(cursorKey);
+        LocalDateTime cursorHour = cursor == null ? null : LocalDateTime.parse(cursor, HOUR_FORMATTER);
+
+        if (cursorHour == null || cursorHour.isBefore(latestClosed.minusHours(hours))
+                || isExpired(cursorHour.plusHours(1).minusHours(hours))) {
+            rebuild(hours, latestClosed);
+            return;
+        }
+        while (cursorHour.isBefore(latestClosed)) {
+            LocalDateTime next = cursorHour.plusHours(1);
+            Long stepped = stringRedisTemplate.execute(STEP_SCRIPT,
+                    List.of(sortKey, cursorKey, RedisConstant.getSortHourKey(next),
+                            RedisConstant.getSortHourKey(next.minusHours(hours))),
+                    cursorHour.format(HOUR_FORMATTER), next.format(HOUR_FORMATTER));
+            if (!Long.valueOf(1L).equals(stepped)) {
+                log.info("{}小时滚动窗口已被其他实例推进", hours);
+                return;
+            }
+            cursorHour = next;
+        }
+    }
+
+    /**
+     * 追赶时移出窗口的小时桶依次变新，第一个没有过期，后面的也不会过期。
+     * 已过期(或已被清理)的小时桶无法再减去，只能重建
+     */
+    private boolean isExpired(LocalDateTime hour) {
+        Long deadline = bucketExpiryService.deadline(RedisConstant.getSortHourKey(hour));
+        return deadline != null && deadline <= System.currentTimeMillis() / 1000;
+    }
+
+    private void rebuild(int hours, LocalDateTime latestClosed) {
+        log.info("重建{}小时滚动窗口，截止{}", hours, latestClosed.format(HOUR_FORMATTER));
+        List<String> keys = new ArrayList<>(hours + 2);
+        keys.add(RedisConstant.getRollingSortKey(hours));
+        keys.add(RedisConstant.getRollingCursorKey(hours));
+        for (int i=0; i<hours; i++) {
+            keys.add(RedisConstant.getSortHourKey(latestClosed.minusHours(i)));
+        }
+        stringRedisTemplate.execute(REBUILD_SCRIPT, keys, latestClosed.format(HOUR_FORMATTER));
+    }
+
+    @Override
+    public String rollingSortKey(int hours) {
+        if (!rankProperties.getRolling().getWindows().contains(hours)) {
+            throw new GlobalException("未配置的滚动窗口: " + hours + "h");
+        }
+        return RedisConstant.getRollingSortKey(hours);
+    }
+}
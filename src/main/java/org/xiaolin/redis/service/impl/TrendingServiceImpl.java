@@ -0,0 +1,216 @@
+package org.xiaolin.redis.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.service.TrendingService;
+import org.xiaolin.redis.utils.SpaceSaving;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按书籍主键把点击分到rank.trending.stripes段，每段是一个独立加锁的Space-Saving，
+ * 同一本书总在同一段，各段的误差界互不影响。
+ * 每rank.trending.exchange-interval-ms按半衰期衰减一次计数；开启交换时把本地统计写入Redis，
+ * 同时读回其他实例的统计。Redis不可用时只是跳过交换，继续使用本地统计和上一次读到的结果
+ * @author xlxing
+ * @Description 本地统计的热门书籍
+ * @create 2026/10/17
+ */
+@Slf4j
+@Service
+public class TrendingServiceImpl implements TrendingService {
+
+    private static final String MIN_FIELD = "min";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RankProperties rankProperties;
+
+    private final SpaceSaving[] stripes;
+
+    private final String instance = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * 其他实例最近一次上报的统计
+     */
+    private volatile List<Summary> remotes = List.of();
+
+    private long lastDecay = System.currentTimeMillis();
+
+    public TrendingServiceImpl(StringRedisTemplate stringRedisTemplate, RankProperties rankProperties) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.rankProperties = rankProperties;
+        RankProperties.Trending trending = rankProperties.getTrending();
+        int count = Math.max(trending.getStripes(), 1);
+        int capacity = Math.max((trending.getCapacity() + count - 1) / count, 1);
+        this.stripes = new SpaceSaving[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new SpaceSaving(capacity);
+        }
+    }
+
+    @Override
+    public void record(Long bookId) {
+        if (!rankProperties.getTrending().isEnabled()) {
+            return;
+        }
+        SpaceSaving stripe = stripes[Math.floorMod(Long.hashCode(bookId * 0x9E3779B97F4A7C15L), stripes.length)];
+        synchronized (stripe) {
+            stripe.offer(bookId, 1);
+        }
+    }
+
+    /**
+     * 对每本出现过的书籍，某个统计中没有它时，它在该统计中的计数不超过该统计的min，
+     * 估计值按min累加，下界按0累加
+     */
+    @Override
+    public List<Estimate> top(int k) {
+        List<Summary> summaries = new ArrayList<>(remotes);
+        summaries.add(local());
+        Set<Long> candidates = new HashSet<>();
+        summaries.forEach(summary -> candidates.addAll(summary.counters().keySet()));
+        List<Estimate> estimates = new ArrayList<>(candidates.size());
+        for (Long bookId : candidates) {
+            double estimate = 0;
+            double lowerBound = 0;
+            for (Summary summary : summaries) {
+                SpaceSaving.Counter counter = summary.counters().get(bookId);
+                if (counter == null) {
+                    estimate += summary.min();
+                } else {
+                    estimate += counter.count();
+                    lowerBound += counter.count() - counter.error();
+                }
+            }
+            estimates.add(new Estimate(bookId, estimate, lowerBound));
+        }
+        return estimates.stream()
+                .sorted(Comparator.comparingDouble(Estimate::estimate).reversed())
+                .limit(Math.max(k, 0))
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${rank.trending.exchange-interval-ms:10000}")
+    public void tick() {
+        RankProperties.Trending trending = rankProperties.getTrending();
+        if (!trending.isEnabled()) {
+            return;
+        }
+        decay(trending);
+        if (trending.isExchange()) {
+            try {
+                exchange(trending);
+            } catch (RuntimeException e) {
+                log.warn("交换热门书籍统计失败，继续使用本地统计: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void decay(RankProperties.Trending trending) {
+        long now = System.currentTimeMillis();
+        double factor = Math.pow(0.5, (now - lastDecay) / (double) trending.getHalfLife().toMillis());
+        lastDecay = now;
+        for (SpaceSaving stripe : stripes) {
+            synchronized (stripe) {
+                stripe.scale(factor);
+            }
+        }
+        // Redis不可用时其他实例的统计不再更新，同样衰减
+        remotes = remotes.stream().map(summary -> summary.scale(factor)).toList();
+    }
+
+    private void exchange(RankProperties.Trending trending) {
+        Summary local = local();
+        long now = System.currentTimeMillis();
+        long ttl = 3 * trending.getExchangeIntervalMs();
+        Map<String, String> fields = new HashMap<>(local.counters().size() * 2);
+        fields.put(MIN_FIELD, Double.toString(local.min()));
+        local.counters().values().forEach(counter ->
+                fields.put(Long.toString(counter.item()), counter.count() + ":" + counter.error()));
+
+        String key = RedisConstant.TRENDING_PREFIX + instance;
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection commands = (StringRedisConnection) connection;
+            commands.del(key);
+            commands.hMSet(key, fields);
+            commands.pExpire(key, ttl);
+            commands.zAdd(RedisConstant.TRENDING_INSTANCES_KEY, now, instance);
+            commands.zRemRangeByScore(RedisConstant.TRENDING_INSTANCES_KEY, 0, now - ttl);
+            commands.zRange(RedisConstant.TRENDING_INSTANCES_KEY, 0, -1);
+            return null;
+        });
+        @SuppressWarnings("unchecked")
+        Set<String> instances = (Set<String>) replies.get(replies.size() - 1);
+        List<String> others = instances == null ? List.of() : instances.stream().filter(i -> !i.equals(instance)).toList();
+
+        List<Object> hashes = others.isEmpty() ? List.of() : stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            others.forEach(other -> ((StringRedisConnection) connection).hGetAll(RedisConstant.TRENDING_PREFIX + other));
+            return null;
+        });
+        List<Summary> summaries = new ArrayList<>(hashes.size());
+        for (Object hash : hashes) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> remote = (Map<String, String>) hash;
+            if (remote != null && !remote.isEmpty()) {
+                summaries.add(parse(remote));
+            }
+        }
+        remotes = List.copyOf(summaries);
+        log.debug("交换热门书籍统计，本地{}本，其他实例{}个", local.counters().size(), summaries.size());
+    }
+
+    /**
+     * 本地各段合并后的统计，min取各段min的最大值，仍是未跟踪书籍计数的上界
+     */
+    private Summary local() {
+        Map<Long, SpaceSaving.Counter> counters = new HashMap<>();
+        double min = 0;
+        for (SpaceSaving stripe : stripes) {
+            synchronized (stripe) {
+                stripe.counters().forEach(counter -> counters.put(counter.item(), counter));
+                min = Math.max(min, stripe.min());
+            }
+        }
+        return new Summary(min, counters);
+    }
+
+    private static Summary parse(Map<String, String> hash) {
+        Map<Long, SpaceSaving.Counter> counters = new HashMap<>(hash.size() * 2);
+        double min = 0;
+        for (Map.Entry<String, String> entry : hash.entrySet()) {
+            if (MIN_FIELD.equals(entry.getKey())) {
+                min = Double.parseDouble(entry.getValue());
+                continue;
+            }
+            long bookId = Long.parseLong(entry.getKey());
+            String value = entry.getValue();
+            int separator = value.indexOf(':');
+            counters.put(bookId, new SpaceSaving.Counter(bookId,
+                    Double.parseDouble(value.substring(0, separator)), Double.parseDouble(value.substring(separator + 1))));
+        }
+        return new Summary(min, counters);
+    }
+
+    private record Summary(double min, Map<Long, SpaceSaving.Counter> counters) {
+        Summary scale(double factor) {
+            Map<Long, SpaceSaving.Counter> scaled = new HashMap<>(counters.size() * 2);
+            counters.forEach((bookId, counter) -> scaled.put(bookId,
+                    new SpaceSaving.Counter(bookId, counter.count() * factor, counter.error() * factor)));
+            return new Summary(min * factor, scaled);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.xiaolin.redis.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.metrics.RankMetrics;
+import org.xiaolin.redis.service.BucketExpiryService;
+import org.xiaolin.redis.service.UniqueReaderService;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 点击带有读者标识时，PFADD到book:uv:hll:yyyyMMdd:书籍主键，并把书籍加入当天的book:uv:touched集合。
+ * 定时任务SSCAN该集合，每chunk-size本书用一次pipeline执行PFCOUNT，再用一次ZADD写入book:uv:sort:yyyyMMdd，
+ * 排行榜查询与其他排行榜一样直接读ZSET，不在请求中执行PFCOUNT
+ * @author xlxing
+ * @Description 每本书每天的独立读者排行榜
+ * @create 2026/10/17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UniqueReaderServiceImpl implements UniqueReaderService {
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RankProperties rankProperties;
+
+    private final BucketExpiryService bucketExpiryService;
+
+    private final RankMetrics rankMetrics;
+
+    @Override
+    @Scheduled(fixedDelayString = "${rank.unique.materialize-interval-ms:60000}")
+    public void materialize() {
+        if (!rankProperties.getUnique().isEnabled()) {
+            return;
+        }
+        rankMetrics.job("unique_materialize", () -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (now.getHour() == 0) {
+                // 前一天最后一次物化之后的点击
+                materialize(now.minusDays(1));
+            }
+            materialize(now);
+        });
+    }
+
+    @Override
+    public long materialize(LocalDateTime day) {
+        String touchedKey = RedisConstant.getUniqueTouchedKey(day);
+        String sortKey = RedisConstant.getUniqueSortKey(day);
+        int chunkSize = Math.max(rankProperties.getUnique().getChunkSize(), 1);
+        long materialized = 0;
+        List<String> bookIds = new ArrayList<>(chunkSize);
+        try (Cursor<String> cursor = stringRedisTemplate.opsForSet().scan(touchedKey,
+                ScanOptions.scanOptions().count(chunkSize).build())) {
+            while (cursor.hasNext()) {
+                bookIds.add(cursor.next());
+                if (bookIds.size() == chunkSize) {
+                    materialized += materialize(day, sortKey, bookIds);
+                }
+            }
+        }
+        materialized += materialize(day, sortKey, bookIds);
+        Long deadline = bucketExpiryService.deadline(sortKey);
+        if (materialized > 0 && deadline != null) {
+            stringRedisTemplate.expireAt(sortKey, Instant.ofEpochSecond(deadline));
+        }
+        log.debug("物化独立读者排行榜{}，书籍{}本", sortKey, materialized);
+        return materialized;
+    }
+
+    private int materialize(LocalDateTime day, String sortKey, List<String> bookIds) {
+        if (bookIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> counts = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection commands = (StringRedisConnection) connection;
+            bookIds.forEach(bookId -> commands.pfCount(RedisConstant.getUniqueHllKey(day, Long.valueOf(bookId))));
+            return null;
+        });
+        Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>(bookIds.size() * 2);
+        for (int i = 0; i < bookIds.size(); i++) {
+            Long count = (Long) counts.get(i);
+            if (count != null && count > 0) {
+                tuples.add(new DefaultTypedTuple<>(bookIds.get(i), count.doubleValue()));
+            }
+        }
+        if (!tuples.isEmpty()) {
+            rankMetrics.redis("materialize", RankMetrics.board(sortKey),
+                    () -> stringRedisTemplate.opsForZSet().add(sortKey, tuples));
+        }
+        bookIds.clear();
+        return tuples.size();
+    }
+}
@@ -0,0 +1,125 @@
+package org.xiaolin.redis.utils;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 把多批写命令合并为一批：同一排行榜上同一本书的ZINCRBY增量相加，对数空间的增量按log-sum-exp合并，
+ * SADD、PFADD与EXPIREAT去重。合并结果中EXPIREAT放在最后，保证key已经被写入。非线程安全
+ * @author xlxing
+ * @Description 批量写命令合并
+ * @create 2026/10/17
+ */
+public class BatchAggregator {
+
+    private final Map<Member, Double> increments = new LinkedHashMap<>();
+
+    private final Map<Member, Double> logAdds = new LinkedHashMap<>();
+
+    private final Set<RedisBatch.AddToSet> sets = new LinkedHashSet<>();
+
+    private final Set<RedisBatch.PfAdd> hyperLogLogs = new LinkedHashSet<>();
+
+    private final Map<String, Long> expires = new LinkedHashMap<>();
+
+    public BatchAggregator add(RedisBatch batch) {
+        for (RedisBatch.Op op : batch.getOps()) {
+            if (op instanceof RedisBatch.IncrementScore incr) {
+                increments.merge(new Member(incr.key(), incr.member()), incr.delta(), Double::sum);
+            } else if (op instanceof RedisBatch.LogAddScore logAdd) {
+                logAdds.merge(new Member(logAdd.key(), logAdd.member()), logAdd.logDelta(), BatchAggregator::logSum);
+            } else if (op instanceof RedisBatch.AddToSet addToSet) {
+                sets.add(addToSet);
+            } else if (op instanceof RedisBatch.PfAdd pfAdd) {
+                hyperLogLogs.add(pfAdd);
+            } else if (op instanceof RedisBatch.ExpireAt expireAt) {
+                expires.put(expireAt.key(), expireAt.epochSeconds());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 合并后的命令条数
+     */
+    public int size() {
+        return increments.size() + logAdds.size() + sets.size() + hyperLogLogs.size() + expires.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public RedisBatch toBatch() {
+        return toBatch(key -> true);
+    }
+
+    /**
+     * @param keyFilter 只保留key满足条件的命令
+     * @return 合并后的批量命令
+     */
+    public RedisBatch toBatch(Predicate<String> keyFilter) {
+        RedisBatch batch = new RedisBatch();
+        increments.forEach((m, delta) -> {
+            if (keyFilter.test(m.key())) {
+                batch.incrementScore(m.key(), m.member(), delta);
+            }
+        });
+        logAdds.forEach((m, logDelta) -> {
+            if (keyFilter.test(m.key())) {
+                batch.logAddScore(m.key(), m.member(), logDelta);
+            }
+        });
+        sets.forEach(addToSet -> {
+            if (keyFilter.test(addToSet.key())) {
+                batch.addToSet(addToSet.key(), addToSet.member());
+            }
+        });
+        hyperLogLogs.forEach(pfAdd -> {
+            if (keyFilter.test(pfAdd.key())) {
+                batch.addToHyperLogLog(pfAdd.key(), pfAdd.element());
+            }
+        });
+        expires.forEach((key, epochSeconds) -> {
+            if (keyFilter.test(key)) {
+                batch.expireAt(key, epochSeconds);
+            }
+        });
+        return batch;
+    }
+
+    /**
+     * 合并后各排行榜上每本书的增量，用于推导额外的写入(例如已经滚入滚动窗口的小时桶)
+     */
+    public Map<Member, Double> getIncrements() {
+        return increments;
+    }
+
+    public void clear() {
+        increments.clear();
+        logAdds.clear();
+        sets.clear();
+        hyperLogLogs.clear();
+        expires.clear();
+    }
+
+    private static double logSum(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log(Math.exp(a - max) + Math.exp(b - max));
+    }
+
+    /**
+     * 小时榜的key只有末尾一位不同、书籍主键又是连续的，record默认的31 * h1 + h2会大量冲突，
+     * 这里把书籍主键乘以黄金分割常数打散后再与key的哈希混合
+     */
+    public record Member(String key, Long member) {
+        @Override
+        public int hashCode() {
+            long h = member * 0x9E3779B97F4A7C15L ^ key.hashCode() * 0xC2B2AE3D27D4EB4FL;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
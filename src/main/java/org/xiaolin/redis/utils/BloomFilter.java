@@ -0,0 +1,86 @@
+package org.xiaolin.redis.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 长整型元素的布隆过滤器。位数组为AtomicLongArray，加入和查询都不加锁，可以并发调用。
+ * 对元素做一次64位混合，高低32位按双重散列 h1 + i*h2 生成hashes个位置。
+ * 已加入的元素一定返回true；未加入的元素按falsePositiveRate的概率误判为存在，元素数超过容量后误判率上升
+ * @author xlxing
+ * @Description 布隆过滤器
+ * @create 2026/10/17
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final long bitCount;
+
+    private final int hashes;
+
+    /**
+     * @param capacity 预计元素数
+     * @param falsePositiveRate 容量内的误判率
+     */
+    public BloomFilter(long capacity, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        long n = Math.max(capacity, 1);
+        // m = -n*ln(p)/(ln2)^2, k = m/n*ln2
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min((m + 63) >>> 6, Integer.MAX_VALUE);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void put(long item) {
+        long hash = mix(item);
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = hash >>> 32;
+        for (int i = 1; i <= hashes; i++) {
+            long index = index(h1 + i * h2);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = bits.get(word);
+            // 已置位时不做CAS
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(long item) {
+        long hash = mix(item);
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = hash >>> 32;
+        for (int i = 1; i <= hashes; i++) {
+            long index = index(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 位数组占用的字节数
+     */
+    public long sizeInBytes() {
+        return bitCount >>> 3;
+    }
+
+    private long index(long combined) {
+        return (combined & Long.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * SplitMix64的终结函数，连续的自增主键也能均匀分散
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,320 @@
+package org.xiaolin.redis.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.xiaolin.redis.config.RankProperties;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * 点击合并缓冲区：同一排行榜上同一本书的增量先在本地累加，定时以一次pipeline写入Redis。
+ * 热门书籍每秒上千次点击最终只产生一条ZINCRBY。
+ * 请求线程只在本地累加，从不访问Redis：缓冲区超过上限的一半时通知后台线程提前刷新，
+ * 已满时(例如Redis不可用、刷新持续失败)丢弃新的点击并计数，内存占用有上界
+ * @author xlxing
+ * @Description 点击合并缓冲区
+ * @create 2026/10/17
+ */
+@Slf4j
+@Component
+public class ClickBuffer {
+
+    private final RedisZSet redisZSet;
+
+    private final RankProperties rankProperties;
+
+    /**
+     * 排行榜key -> (书籍 -> 待写入增量)
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Long, DoubleAdder>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 对数空间排行榜key -> (书籍 -> 待写入增量)，每次刷新整体换新，保证增量的基准值不会陈旧
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Long, LogAdder>> pendingLog = new ConcurrentHashMap<>();
+
+    /**
+     * 集合key -> 待SADD的成员，SADD是幂等的，只需去重
+     */
+    private final ConcurrentHashMap<String, Set<Long>> pendingSets = new ConcurrentHashMap<>();
+
+    /**
+     * HyperLogLog key -> 待PFADD的元素，PFADD是幂等的，只需去重
+     */
+    private final ConcurrentHashMap<String, Set<String>> pendingHyperLogLogs = new ConcurrentHashMap<>();
+
+    /**
+     * key -> 过期时间，EXPIREAT是幂等的，只需去重
+     */
+    private final ConcurrentHashMap<String, Long> pendingExpires = new ConcurrentHashMap<>();
+
+    private final AtomicInteger entries = new AtomicInteger();
+
+    private final Counter dropped;
+
+    /**
+     * 提前刷新的后台线程，同一时间最多排队一次
+     */
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "click-buffer-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    public ClickBuffer(RedisZSet redisZSet, RankProperties rankProperties, MeterRegistry meterRegistry) {
+        this.redisZSet = redisZSet;
+        this.rankProperties = rankProperties;
+        Gauge.builder("rank.click.buffer.entries", entries, AtomicInteger::get)
+                .description("点击缓冲区中等待写入Redis的计数器个数")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("rank.click.buffer.dropped")
+                .description("缓冲区已满被丢弃的写命令数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 合并一批写命令，不阻塞也不访问Redis
+     * @param batch 批量命令
+     */
+    public void add(RedisBatch batch) {
+        int maxEntries = rankProperties.getClick().getMaxBufferedEntries();
+        if (entries.get() >= maxEntries) {
+            dropped.increment(batch.size());
+            requestFlush();
+            return;
+        }
+        for (RedisBatch.Op op : batch.getOps()) {
+            if (op instanceof RedisBatch.IncrementScore incr) {
+                add(incr.key(), incr.member(), incr.delta());
+            } else if (op instanceof RedisBatch.LogAddScore logAdd) {
+                logAdd(logAdd.key(), logAdd.member(), logAdd.logDelta());
+            } else if (op instanceof RedisBatch.AddToSet addToSet) {
+                addToSet(addToSet.key(), addToSet.member());
+            } else if (op instanceof RedisBatch.PfAdd pfAdd) {
+                addToHyperLogLog(pfAdd.key(), pfAdd.element());
+            } else if (op instanceof RedisBatch.ExpireAt expireAt) {
+                pendingExpires.put(expireAt.key(), expireAt.epochSeconds());
+            }
+        }
+        if (entries.get() >= maxEntries / 2) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * 通知后台线程尽快刷新，已经有一次刷新在排队时什么也不做
+     */
+    private void requestFlush() {
+        if (!flushRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        } catch (RejectedExecutionException e) {
+            // 应用正在关闭，剩余的增量由close()写出
+            flushRequested.set(false);
+        }
+    }
+
+    private void add(String key, Long member, double delta) {
+        while (true) {
+            ConcurrentHashMap<Long, DoubleAdder> deltas = pending.get(key);
+            if (deltas == null) {
+                deltas = pending.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+            }
+            DoubleAdder adder = deltas.get(member);
+            if (adder == null) {
+                DoubleAdder created = new DoubleAdder();
+                adder = deltas.putIfAbsent(member, created);
+                if (adder == null) {
+                    adder = created;
+                    entries.incrementAndGet();
+                }
+            }
+            adder.add(delta);
+            if (deltas.get(member) == adder && pending.get(key) == deltas) {
+                return;
+            }
+            // 计数器已被flush移出缓冲区，收回这部分增量后重新写入
+            delta = adder.sumThenReset();
+            if (delta == 0) {
+                return;
+            }
+        }
+    }
+
+    private void logAdd(String key, Long member, double logDelta) {
+        while (true) {
+            ConcurrentHashMap<Long, LogAdder> deltas = pendingLog.get(key);
+            if (deltas == null) {
+                deltas = pendingLog.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+            }
+            LogAdder adder = deltas.get(member);
+            if (adder == null) {
+                LogAdder created = new LogAdder(logDelta);
+                adder = deltas.putIfAbsent(member, created);
+                if (adder == null) {
+                    adder = created;
+                    entries.incrementAndGet();
+                }
+            }
+            adder.add(logDelta);
+            if (deltas.get(member) == adder && pendingLog.get(key) == deltas) {
+                return;
+            }
+            // 计数器已被flush移出缓冲区，收回这部分增量后重新写入
+            double sum = adder.sum.sumThenReset();
+            if (sum == 0) {
+                return;
+            }
+            logDelta = adder.base + Math.log(sum);
+        }
+    }
+
+    private void addToSet(String key, Long member) {
+        while (true) {
+            Set<Long> members = pendingSets.get(key);
+            if (members == null) {
+                members = pendingSets.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+            }
+            if (members.add(member)) {
+                entries.incrementAndGet();
+            }
+            // 集合已被flush取走时重新加入，重复的SADD没有副作用
+            if (pendingSets.get(key) == members) {
+                return;
+            }
+        }
+    }
+
+    private void addToHyperLogLog(String key, String element) {
+        while (true) {
+            Set<String> elements = pendingHyperLogLogs.get(key);
+            if (elements == null) {
+                elements = pendingHyperLogLogs.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+            }
+            if (elements.add(element)) {
+                entries.incrementAndGet();
+            }
+            if (pendingHyperLogLogs.get(key) == elements) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 把缓冲区中的增量合并为一次pipeline写入Redis，写入失败时增量放回缓冲区等待下次刷新，
+     * 放回时缓冲区已满的部分丢弃并计数
+     */
+    @Scheduled(fixedDelayString = "${rank.click.flush-interval-ms:100}")
+    public synchronized void flush() {
+        if (pending.isEmpty() && pendingLog.isEmpty() && pendingSets.isEmpty() && pendingHyperLogLogs.isEmpty()
+                && pendingExpires.isEmpty()) {
+            return;
+        }
+        RedisBatch batch = new RedisBatch();
+        pending.forEach((key, deltas) -> {
+            deltas.forEach((member, adder) -> {
+                double delta = adder.sumThenReset();
+                // 上个周期以来没有点击的计数器移出缓冲区，移出后再清空一次，收回并发写入的增量
+                if (delta == 0 && deltas.remove(member, adder)) {
+                    delta = adder.sumThenReset();
+                }
+                if (delta != 0) {
+                    batch.incrementScore(key, member, delta);
+                }
+            });
+            if (deltas.isEmpty()) {
+                pending.remove(key, deltas);
+            }
+        });
+        pendingLog.forEach((key, deltas) -> {
+            pendingLog.remove(key, deltas);
+            deltas.forEach((member, adder) -> {
+                deltas.remove(member, adder);
+                double sum = adder.sum.sumThenReset();
+                if (sum != 0) {
+                    batch.logAddScore(key, member, adder.base + Math.log(sum));
+                }
+            });
+        });
+        pendingSets.forEach((key, members) -> {
+            pendingSets.remove(key, members);
+            members.forEach(member -> batch.addToSet(key, member));
+        });
+        pendingHyperLogLogs.forEach((key, elements) -> {
+            pendingHyperLogLogs.remove(key, elements);
+            elements.forEach(element -> batch.addToHyperLogLog(key, element));
+        });
+        // 过期时间放在最后，保证key已经被写入
+        pendingExpires.forEach((key, epochSeconds) -> {
+            pendingExpires.remove(key, epochSeconds);
+            batch.expireAt(key, epochSeconds);
+        });
+        entries.set(pending.values().stream().mapToInt(ConcurrentHashMap::size).sum());
+
+        try {
+            redisZSet.execute("buffer", batch);
+        } catch (RuntimeException e) {
+            log.warn("点击缓冲区刷新失败，{}条增量等待下次写入: {}", batch.size(), e.getMessage());
+            int maxEntries = rankProperties.getClick().getMaxBufferedEntries();
+            batch.getOps().forEach(op -> {
+                if (entries.get() >= maxEntries && !(op instanceof RedisBatch.ExpireAt)) {
+                    dropped.increment();
+                } else if (op instanceof RedisBatch.IncrementScore incr) {
+                    add(incr.key(), incr.member(), incr.delta());
+                } else if (op instanceof RedisBatch.LogAddScore logAdd) {
+                    logAdd(logAdd.key(), logAdd.member(), logAdd.logDelta());
+                } else if (op instanceof RedisBatch.AddToSet addToSet) {
+                    addToSet(addToSet.key(), addToSet.member());
+                } else if (op instanceof RedisBatch.PfAdd pfAdd) {
+                    addToHyperLogLog(pfAdd.key(), pfAdd.element());
+                } else if (op instanceof RedisBatch.ExpireAt expireAt) {
+                    pendingExpires.put(expireAt.key(), expireAt.epochSeconds());
+                }
+            });
+        }
+    }
+
+    /**
+     * 应用关闭前写出剩余的增量
+     */
+    @PreDestroy
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /**
+     * 对数增量的累加器：以第一次写入的增量为基准，累加exp(logDelta - base)，避免指数溢出
+     */
+    private static class LogAdder {
+        private final double base;
+        private final DoubleAdder sum = new DoubleAdder();
+
+        LogAdder(double base) {
+            this.base = base;
+        }
+
+        void add(double logDelta) {
+            sum.add(Math.exp(logDelta - base));
+        }
+    }
+}
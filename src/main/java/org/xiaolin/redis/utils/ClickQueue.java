@@ -0,0 +1,182 @@
+package org.xiaolin.redis.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.xiaolin.redis.config.RankProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步点击队列：请求线程把一次点击的写命令放入无锁的有界队列后立即返回，
+ * 写线程批量取出，由{@link BatchAggregator}合并同一排行榜上同一本书的增量，通过Lettuce异步接口一次写出。
+ * Redis延迟抖动只会让队列变长，不会出现在查阅书籍的响应时间里
+ * @author xlxing
+ * @Description 异步点击队列
+ * @create 2026/10/17
+ */
+@Slf4j
+@Component
+public class ClickQueue {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final RedisZSet redisZSet;
+
+    private final RankProperties rankProperties;
+
+    private final ConcurrentLinkedQueue<RedisBatch> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * ConcurrentLinkedQueue.size()需要遍历，单独计数
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final Counter dropped;
+
+    private final Counter failed;
+
+    private final List<Thread> writers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public ClickQueue(RedisZSet redisZSet, RankProperties rankProperties, MeterRegistry meterRegistry) {
+        this.redisZSet = redisZSet;
+        this.rankProperties = rankProperties;
+        Gauge.builder("rank.click.queue.depth", size, AtomicInteger::get)
+                .description("等待写入Redis的点击数")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("rank.click.queue.dropped")
+                .description("队列已满被丢弃的点击数")
+                .register(meterRegistry);
+        this.failed = Counter.builder("rank.click.queue.failed")
+                .description("写入Redis失败的点击数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (rankProperties.getClick().getMode() != RankProperties.ClickMode.ASYNC) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < rankProperties.getClick().getWriterThreads(); i++) {
+            Thread writer = new Thread(this::drainLoop, "click-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+    }
+
+    /**
+     * 放入一次点击，队列已满时按rank.click.overflow丢弃或阻塞
+     * @param batch 一次点击的写命令
+     * @return 是否放入队列
+     */
+    public boolean offer(RedisBatch batch) {
+        if (rankProperties.getClick().getOverflow() == RankProperties.OverflowPolicy.DROP) {
+            return tryOffer(batch);
+        }
+        while (!tryOffer0(batch)) {
+            if (!running) {
+                dropped.increment();
+                return false;
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * 不阻塞地放入一次点击，队列已满时丢弃并计数。事件循环线程只能调用该方法
+     * @param batch 一次点击的写命令
+     * @return 是否放入队列
+     */
+    public boolean tryOffer(RedisBatch batch) {
+        if (tryOffer0(batch)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private boolean tryOffer0(RedisBatch batch) {
+        int capacity = rankProperties.getClick().getQueueCapacity();
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        queue.offer(batch);
+        return true;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (RuntimeException e) {
+                log.error("点击写线程异常", e);
+            }
+        }
+    }
+
+    /**
+     * 取出一批点击合并后写入Redis，等待写入完成后再取下一批，每个写线程最多一批在途
+     * @return 取出的点击数
+     */
+    int drain() {
+        int limit = rankProperties.getClick().getDrainBatchSize();
+        List<RedisBatch> clicks = new ArrayList<>(Math.min(limit, size.get()));
+        RedisBatch click;
+        while (clicks.size() < limit && (click = queue.poll()) != null) {
+            clicks.add(click);
+        }
+        if (clicks.isEmpty()) {
+            return 0;
+        }
+        size.addAndGet(-clicks.size());
+        try {
+            BatchAggregator aggregator = new BatchAggregator();
+            clicks.forEach(aggregator::add);
+            redisZSet.executeAsync("queue", aggregator.toBatch()).join();
+        } catch (RuntimeException e) {
+            failed.increment(clicks.size());
+            log.error("{}次点击写入Redis失败", clicks.size(), e);
+        }
+        return clicks.size();
+    }
+
+    /**
+     * 应用关闭前停止写线程，写出队列中剩余的点击
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        while (drain() > 0) {
+            log.debug("写出剩余点击，队列中还有{}次", size.get());
+        }
+    }
+}
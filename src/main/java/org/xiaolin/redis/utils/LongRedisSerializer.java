@@ -0,0 +1,112 @@
+package org.xiaolin.redis.utils;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 排行榜成员的序列化：书籍主键以十进制ASCII保存，与Jackson序列化Long的字节完全相同，已有的key无需迁移。
+ * 不选8字节定长二进制：Redis在listpack中会把整数形式的字符串按整数编码，十进制反而更省内存，
+ * 且在redis-cli和Lua脚本中可读
+ * @author xlxing
+ * @Description 书籍主键序列化
+ * @create 2026/10/17
+ */
+public class LongRedisSerializer implements RedisSerializer<Long> {
+
+    public static final LongRedisSerializer INSTANCE = new LongRedisSerializer();
+
+    private static final byte[] MIN_VALUE = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    @Override
+    public byte[] serialize(Long value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        long v = value;
+        if (v == Long.MIN_VALUE) {
+            return MIN_VALUE.clone();
+        }
+        boolean negative = v < 0;
+        if (negative) {
+            v = -v;
+        }
+        int length = negative ? 1 : 0;
+        long t = v;
+        do {
+            length++;
+            t /= 10;
+        } while (t != 0);
+        byte[] bytes = new byte[length];
+        for (int i = length - 1; i >= (negative ? 1 : 0); i--) {
+            bytes[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        if (negative) {
+            bytes[0] = '-';
+        }
+        return bytes;
+    }
+
+    /**
+     * 兼容旧版本以JSON字符串保存的成员，例如"\"12\""
+     */
+    @Override
+    public Long deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        int from = 0;
+        int to = bytes.length;
+        if (to >= 2 && bytes[0] == '"' && bytes[to - 1] == '"') {
+            from++;
+            to--;
+        }
+        boolean negative = from < to && bytes[from] == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to || to - i > 19) {
+            throw new SerializationException("非法的书籍主键: " + new String(bytes));
+        }
+        long result = 0;
+        for (; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new SerializationException("非法的书籍主键: " + new String(bytes));
+            }
+            try {
+                // 以负数累加，Long.MIN_VALUE也能表示
+                result = Math.subtractExact(Math.multiplyExact(result, 10), digit);
+            } catch (ArithmeticException e) {
+                throw new SerializationException("书籍主键溢出: " + new String(bytes), e);
+            }
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw new SerializationException("书籍主键溢出: " + new String(bytes));
+            }
+            result = -result;
+        }
+        return result;
+    }
+
+    /**
+     * 是否已经是规范的十进制编码，迁移时用于找出需要改写的成员
+     */
+    public static boolean isCanonical(byte[] bytes) {
+        if (bytes == null || bytes.length == 0 || bytes.length > 20) {
+            return false;
+        }
+        try {
+            return Arrays.equals(bytes, INSTANCE.serialize(INSTANCE.deserialize(bytes)));
+        } catch (SerializationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return Long.class;
+    }
+}
@@ -0,0 +1,86 @@
+package org.xiaolin.redis.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一批需要在同一次网络往返中发送的Redis写命令，由{@link RedisZSet#execute(String, RedisBatch)}在一次网络往返中执行
+ * @author xlxing
+ * @Description 批量写命令
+ * @create 2026/10/17
+ */
+public class RedisBatch {
+
+    private final List<Op> ops = new ArrayList<>();
+
+    /**
+     * ZINCRBY key delta member
+     */
+    public RedisBatch incrementScore(String key, Long member, double delta) {
+        ops.add(new IncrementScore(key, member, delta));
+        return this;
+    }
+
+    /**
+     * 对数空间的累加：score = log(exp(score) + exp(logDelta))，由Lua脚本原子执行
+     */
+    public RedisBatch logAddScore(String key, Long member, double logDelta) {
+        ops.add(new LogAddScore(key, member, logDelta));
+        return this;
+    }
+
+    /**
+     * SADD key member
+     */
+    public RedisBatch addToSet(String key, Long member) {
+        ops.add(new AddToSet(key, member));
+        return this;
+    }
+
+    /**
+     * PFADD key element
+     */
+    public RedisBatch addToHyperLogLog(String key, String element) {
+        ops.add(new PfAdd(key, element));
+        return this;
+    }
+
+    /**
+     * EXPIREAT key epochSeconds
+     */
+    public RedisBatch expireAt(String key, long epochSeconds) {
+        ops.add(new ExpireAt(key, epochSeconds));
+        return this;
+    }
+
+    public List<Op> getOps() {
+        return Collections.unmodifiableList(ops);
+    }
+
+    public int size() {
+        return ops.size();
+    }
+
+    public boolean isEmpty() {
+        return ops.isEmpty();
+    }
+
+    public sealed interface Op permits IncrementScore, LogAddScore, AddToSet, PfAdd, ExpireAt {
+    }
+
+    public record IncrementScore(String key, Long member, double delta) implements Op {
+    }
+
+    public record LogAddScore(String key, Long member, double logDelta) implements Op {
+    }
+
+    public record AddToSet(String key, Long member) implements Op {
+    }
+
+    public record PfAdd(String key, String element) implements Op {
+    }
+
+    public record ExpireAt(String key, long epochSeconds) implements Op {
+    }
+}
@@ -1,10 +1,34 @@
 package org.xiaolin.redis.utils;
 
 import lombok.RequiredArgsConstructor;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.lettuce.LettuceExceptionConverter;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 import org.xiaolin.redis.domain.Book;
 import org.xiaolin.redis.mapper.BookMapper;
+import org.xiaolin.redis.metrics.RankMetrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * TODO: 需要考虑以下问题
@@ -19,8 +43,21 @@ import org.xiaolin.redis.mapper.BookMapper;
 @Component
 @RequiredArgsConstructor
 public class RedisZSet {
-    private final RedisTemplate<String, Object> redisTemplate;
+    private static final RedisScript<Object> LOG_ADD = RedisScript.of(new ClassPathResource("lua/zset_log_add.lua"));
+
+    /**
+     * 点击只发送EVALSHA，服务端没有缓存脚本（NOSCRIPT）时才用EVAL发送脚本全文，EVAL同时把脚本载入缓存
+     */
+    private static final String LOG_ADD_SHA = LOG_ADD.getSha1();
+
+    private static final byte[] LOG_ADD_SCRIPT = LOG_ADD.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+
+    private static final LettuceExceptionConverter EXCEPTION_CONVERTER = new LettuceExceptionConverter();
+
+    private final RedisTemplate<String, Long> rankRedisTemplate;
+    private final ReactiveRedisTemplate<String, Long> reactiveRankRedisTemplate;
     private final BookMapper bookMapper;
+    private final RankMetrics rankMetrics;
 
     public boolean insertBook(Book book) {
         return false;
@@ -35,4 +72,175 @@ public class RedisZSet {
         return null;
     }
 
+    /**
+     * 执行一批写命令并等待完成，所有命令只占用一次网络往返。
+     * Spring的pipeline出错时只报告第一个错误，无法知道哪些EVALSHA返回了NOSCRIPT，
+     * 因此与executeAsync共用Lettuce异步接口，逐条命令处理NOSCRIPT
+     * @param kind 批次类型，作为rank.redis{op=increment}的board标签，见{@link RankMetrics#increments(RedisBatch)}
+     * @param batch 批量命令
+     */
+    public void execute(String kind, RedisBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        rankMetrics.increments(batch);
+        rankMetrics.redis("increment", kind, () -> {
+            try {
+                return send(batch).join();
+            } catch (CompletionException e) {
+                throw translate(e.getCause());
+            }
+        });
+    }
+
+    /**
+     * 通过Lettuce异步接口发出一批写命令，不等待响应。命令在同一条连接上连续写出，与pipeline效果相同。
+     * 返回NOSCRIPT的EVALSHA改用EVAL重发，并补发同一个键的EXPIREAT：脚本可能新建了键，而EXPIREAT已经先于它执行
+     * @param kind 批次类型
+     * @param batch 批量命令
+     * @return 全部命令执行完成
+     */
+    public CompletableFuture<Void> executeAsync(String kind, RedisBatch batch) {
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        rankMetrics.increments(batch);
+        return rankMetrics.redisAsync("increment", kind, () -> send(batch));
+    }
+
+    private CompletableFuture<Void> send(RedisBatch batch) {
+        RedisSerializer<String> keySerializer = RedisSerializer.string();
+        RedisSerializer<Long> valueSerializer = LongRedisSerializer.INSTANCE;
+        return rankRedisTemplate.execute((RedisCallback<CompletableFuture<Void>>) connection -> {
+            @SuppressWarnings("unchecked")
+            RedisClusterAsyncCommands<byte[], byte[]> commands =
+                    (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+            for (RedisBatch.Op op : batch.getOps()) {
+                byte[] key = keySerializer.serialize(keyOf(op));
+                if (op instanceof RedisBatch.IncrementScore incr) {
+                    futures.add(commands.zincrby(key, incr.delta(), valueSerializer.serialize(incr.member())).toCompletableFuture());
+                } else if (op instanceof RedisBatch.LogAddScore logAdd) {
+                    byte[][] keys = {key};
+                    byte[] member = valueSerializer.serialize(logAdd.member());
+                    byte[] delta = Double.toString(logAdd.logDelta()).getBytes(StandardCharsets.UTF_8);
+                    futures.add(commands.<byte[]>evalsha(LOG_ADD_SHA, ScriptOutputType.VALUE, keys, member, delta)
+                            .toCompletableFuture()
+                            .exceptionallyCompose(e -> {
+                                if (!isNoScript(e)) {
+                                    return CompletableFuture.failedFuture(e);
+                                }
+                                CompletableFuture<?> retry = commands.<byte[]>eval(LOG_ADD_SCRIPT, ScriptOutputType.VALUE,
+                                        keys, member, delta).toCompletableFuture();
+                                for (RedisBatch.ExpireAt expireAt : expiresOf(batch, List.of(logAdd.key()))) {
+                                    retry = retry.thenCompose(ignored -> commands.expireat(key, expireAt.epochSeconds()));
+                                }
+                                return retry.thenApply(ignored -> null);
+                            }));
+                } else if (op instanceof RedisBatch.AddToSet addToSet) {
+                    futures.add(commands.sadd(key, valueSerializer.serialize(addToSet.member())).toCompletableFuture());
+                } else if (op instanceof RedisBatch.PfAdd pfAdd) {
+                    futures.add(commands.pfadd(key, keySerializer.serialize(pfAdd.element())).toCompletableFuture());
+                } else if (op instanceof RedisBatch.ExpireAt expireAt) {
+                    futures.add(commands.expireat(key, expireAt.epochSeconds()).toCompletableFuture());
+                }
+            }
+            return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+        });
+    }
+
+    /**
+     * 响应式地执行一批写命令。所有命令在同一条连接上连续发出、不等待前一条的响应，与pipeline效果相同
+     * @param kind 批次类型
+     * @param batch 批量命令
+     * @return 全部命令执行完成
+     */
+    public Mono<Void> executeReactive(String kind, RedisBatch batch) {
+        if (batch.isEmpty()) {
+            return Mono.empty();
+        }
+        rankMetrics.increments(batch);
+        RedisSerializer<String> keySerializer = RedisSerializer.string();
+        RedisSerializer<Long> valueSerializer = LongRedisSerializer.INSTANCE;
+        Flux<Object> replies = reactiveRankRedisTemplate.execute(connection -> Flux.fromIterable(batch.getOps())
+                .flatMapSequential(op -> {
+                    ByteBuffer key = ByteBuffer.wrap(keySerializer.serialize(keyOf(op)));
+                    if (op instanceof RedisBatch.IncrementScore incr) {
+                        return connection.zSetCommands().zIncrBy(key, incr.delta(),
+                                ByteBuffer.wrap(valueSerializer.serialize(incr.member())));
+                    } else if (op instanceof RedisBatch.LogAddScore logAdd) {
+                        return logAddReactive(connection, logAdd, batch);
+                    } else if (op instanceof RedisBatch.AddToSet addToSet) {
+                        return connection.setCommands().sAdd(key, ByteBuffer.wrap(valueSerializer.serialize(addToSet.member())));
+                    } else if (op instanceof RedisBatch.PfAdd pfAdd) {
+                        return connection.hyperLogLogCommands().pfAdd(key, List.of(ByteBuffer.wrap(keySerializer.serialize(pfAdd.element()))));
+                    } else {
+                        RedisBatch.ExpireAt expireAt = (RedisBatch.ExpireAt) op;
+                        return connection.keyCommands().expireAt(key, Instant.ofEpochSecond(expireAt.epochSeconds()));
+                    }
+                }, batch.size()));
+        return rankMetrics.redis("increment", kind, replies.then());
+    }
+
+    private static Flux<Object> logAddReactive(ReactiveRedisConnection connection, RedisBatch.LogAddScore logAdd,
+                                               RedisBatch batch) {
+        byte[] keyBytes = RedisSerializer.string().serialize(logAdd.key());
+        byte[] member = LongRedisSerializer.INSTANCE.serialize(logAdd.member());
+        byte[] delta = Double.toString(logAdd.logDelta()).getBytes(StandardCharsets.UTF_8);
+        return connection.scriptingCommands()
+                .evalSha(LOG_ADD_SHA, ReturnType.VALUE, 1, ByteBuffer.wrap(keyBytes), ByteBuffer.wrap(member), ByteBuffer.wrap(delta))
+                .onErrorResume(RedisZSet::isNoScript, e -> connection.scriptingCommands()
+                        .eval(ByteBuffer.wrap(LOG_ADD_SCRIPT), ReturnType.VALUE, 1,
+                                ByteBuffer.wrap(keyBytes), ByteBuffer.wrap(member), ByteBuffer.wrap(delta))
+                        .concatWith(Flux.fromIterable(expiresOf(batch, List.of(logAdd.key())))
+                                .concatMap(expireAt -> connection.keyCommands().expireAt(ByteBuffer.wrap(keyBytes),
+                                        Instant.ofEpochSecond(expireAt.epochSeconds())))));
+    }
+
+    /**
+     * @param batch 批量命令
+     * @param keys 键
+     * @return 批量命令中这些键的过期时间
+     */
+    private static List<RedisBatch.ExpireAt> expiresOf(RedisBatch batch, List<String> keys) {
+        List<RedisBatch.ExpireAt> expires = new ArrayList<>();
+        for (RedisBatch.Op op : batch.getOps()) {
+            if (op instanceof RedisBatch.ExpireAt expireAt && keys.contains(expireAt.key())) {
+                expires.add(expireAt);
+            }
+        }
+        return expires;
+    }
+
+    /**
+     * 与DefaultScriptExecutor相同，沿异常链查找NOSCRIPT错误
+     */
+    private static boolean isNoScript(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RedisNoScriptException
+                    || cause.getMessage() != null && cause.getMessage().startsWith("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static RuntimeException translate(Throwable e) {
+        DataAccessException translated = e instanceof Exception ex ? EXCEPTION_CONVERTER.convert(ex) : null;
+        return translated != null ? translated : new RedisSystemException(e.getMessage(), e);
+    }
+
+    private static String keyOf(RedisBatch.Op op) {
+        if (op instanceof RedisBatch.IncrementScore incr) {
+            return incr.key();
+        } else if (op instanceof RedisBatch.LogAddScore logAdd) {
+            return logAdd.key();
+        } else if (op instanceof RedisBatch.AddToSet addToSet) {
+            return addToSet.key();
+        } else if (op instanceof RedisBatch.PfAdd pfAdd) {
+            return pfAdd.key();
+        }
+        return ((RedisBatch.ExpireAt) op).key();
+    }
+
 }
@@ -0,0 +1,303 @@
+package org.xiaolin.redis.utils;
+
+import io.lettuce.core.cluster.SlotHash;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.config.RankProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 总排行榜分片。rank.shard.enabled=true时book:sort按书籍主键哈希拆成rank.shard.count个子key，
+ * 每个子key带有不同的hash tag，使各分片落在Redis Cluster中均匀分布的slot上，点击只写一个分片。
+ * 读取前N名时从每个分片各取前N名，再做k路归并。
+ * 小时榜、日榜等分桶排行榜要参与ZUNIONSTORE，必须在同一个slot，不分片
+ * @author xlxing
+ * @Description 总排行榜分片
+ * @create 2026/10/17
+ */
+@Component
+@RequiredArgsConstructor
+public class ShardedBoard {
+
+    /**
+     * 分片数 -> 每个分片的hash tag
+     */
+    private static final Map<Integer, List<String>> TAGS = new ConcurrentHashMap<>();
+
+    /**
+     * 与ZREVRANGE一致：分数从高到低，分数相同时成员按字节序从大到小
+     */
+    private static final Comparator<ZSetOperations.TypedTuple<Long>> REVERSE_ORDER =
+            Comparator.<ZSetOperations.TypedTuple<Long>, Double>comparing(ZSetOperations.TypedTuple::getScore)
+                    .thenComparing(tuple -> String.valueOf(tuple.getValue()))
+                    .reversed();
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> AROUND_SCRIPT =
+            RedisScript.of(new ClassPathResource("lua/rank_around.lua"), List.class);
+
+    private final RankProperties rankProperties;
+
+    private final RedisTemplate<String, Long> rankRedisTemplate;
+
+    private final ReactiveRedisTemplate<String, Long> reactiveRankRedisTemplate;
+
+    /**
+     * 当前配置下的分片数，未启用分片时为1
+     */
+    public int count() {
+        RankProperties.Shard shard = rankProperties.getShard();
+        return shard.isEnabled() ? Math.max(shard.getCount(), 1) : 1;
+    }
+
+    /**
+     * @param board 排行榜key
+     * @return 该排行榜是否按分片读写
+     */
+    public boolean isSharded(String board) {
+        return count() > 1 && RedisConstant.SORT_KEY.equals(board);
+    }
+
+    /**
+     * 书籍所在的分片key，未分片的排行榜返回原key
+     */
+    public String shardKey(String board, Long bookId) {
+        if (!isSharded(board)) {
+            return board;
+        }
+        return shardKeys(board, count()).get(shardIndex(bookId, count()));
+    }
+
+    /**
+     * 排行榜的全部分片key，未分片的排行榜只有原key
+     */
+    public List<String> shardKeys(String board) {
+        return isSharded(board) ? shardKeys(board, count()) : List.of(board);
+    }
+
+    /**
+     * 按指定分片数排布的分片key，重新分片时用于计算新旧两种排布
+     * @param board 排行榜key
+     * @param count 分片数，1表示不分片
+     * @return 分片key
+     */
+    public static List<String> shardKeys(String board, int count) {
+        if (count <= 1) {
+            return List.of(board);
+        }
+        return tags(count).stream().map(tag -> board + ":{" + tag + "}").toList();
+    }
+
+    public static int shardIndex(Long bookId, int count) {
+        // 书籍主键通常连续，先打散再取模
+        return Math.floorMod(Long.hashCode(bookId * 0x9E3779B97F4A7C15L), count);
+    }
+
+    /**
+     * 排行榜区间，分片时从每个分片取前end + 1名后归并
+     * @param board 排行榜key
+     * @param start 开始索引
+     * @param end 结束索引
+     * @return 书籍主键，按排名先后排列
+     */
+    public List<Long> reverseRange(String board, long start, long end) {
+        if (!isSharded(board)) {
+            Set<Long> bookIds = rankRedisTemplate.opsForZSet().reverseRange(board, start, end);
+            return bookIds == null ? List.of() : List.copyOf(bookIds);
+        }
+        if (start < 0 || end < start) {
+            return List.of();
+        }
+        RedisSerializer<String> keySerializer = RedisSerializer.string();
+        List<String> keys = shardKeys(board);
+        List<Object> replies = rankRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            keys.forEach(key -> connection.zSetCommands().zRevRangeWithScores(keySerializer.serialize(key), 0, end));
+            return null;
+        });
+        List<List<ZSetOperations.TypedTuple<Long>>> shards = new ArrayList<>(replies.size());
+        for (Object reply : replies) {
+            @SuppressWarnings("unchecked")
+            Set<ZSetOperations.TypedTuple<Long>> tuples = (Set<ZSetOperations.TypedTuple<Long>>) reply;
+            shards.add(tuples == null ? List.of() : List.copyOf(tuples));
+        }
+        return merge(shards, start, end);
+    }
+
+    /**
+     * 响应式的排行榜区间，各分片的ZREVRANGE在同一条连接上连续发出
+     */
+    public Mono<List<Long>> reverseRangeReactive(String board, long start, long end) {
+        if (!isSharded(board)) {
+            return reactiveRankRedisTemplate.opsForZSet().reverseRange(board, Range.closed(start, end)).collectList();
+        }
+        if (start < 0 || end < start) {
+            return Mono.just(List.of());
+        }
+        return Flux.fromIterable(shardKeys(board))
+                .flatMapSequential(key -> reactiveRankRedisTemplate.opsForZSet()
+                        .reverseRangeWithScores(key, Range.closed(0L, end))
+                        .collectList())
+                .collectList()
+                .map(shards -> merge(shards, start, end));
+    }
+
+    /**
+     * 书籍的名次、分数及前后各k名，复杂度O(log N + k)，与排行榜大小无关。
+     * 未分片时用一次脚本调用完成；分片时先在书籍所在分片上执行脚本，
+     * 再用一次pipeline从其他分片取分数更高的书籍数，以及紧邻该分数上下的各k名后合并。
+     * 分片时其他分片中同分的书籍一律排在后面
+     * @param board 排行榜key
+     * @param bookId 书籍主键
+     * @param k 前后各取几名
+     * @return 书籍不在排行榜中时返回null
+     */
+    public Around around(String board, Long bookId, int k) {
+        String ownKey = shardKey(board, bookId);
+        Around own = aroundInShard(ownKey, bookId, k);
+        if (own == null || !isSharded(board)) {
+            return own;
+        }
+        List<String> others = shardKeys(board).stream().filter(key -> !key.equals(ownKey)).toList();
+        RedisSerializer<String> keySerializer = RedisSerializer.string();
+        Range<Double> higher = Range.rightUnbounded(Range.Bound.exclusive(own.score()));
+        Range<Double> notHigher = Range.leftUnbounded(Range.Bound.inclusive(own.score()));
+        Limit limit = Limit.limit().count(k);
+        List<Object> replies = rankRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            others.forEach(key -> {
+                byte[] rawKey = keySerializer.serialize(key);
+                connection.zSetCommands().zCount(rawKey, higher);
+                connection.zSetCommands().zRangeByScoreWithScores(rawKey, higher, limit);
+                connection.zSetCommands().zRevRangeByScoreWithScores(rawKey, notHigher, limit);
+            });
+            return null;
+        });
+        int self = (int) (own.rank() - own.firstRank());
+        List<ZSetOperations.TypedTuple<Long>> above = new ArrayList<>(own.window().subList(0, self));
+        List<ZSetOperations.TypedTuple<Long>> below = new ArrayList<>(own.window().subList(self + 1, own.window().size()));
+        long rank = own.rank();
+        for (int i = 0; i < replies.size(); i += 3) {
+            Long count = (Long) replies.get(i);
+            rank += count == null ? 0 : count;
+            above.addAll(tuples(replies.get(i + 1)));
+            below.addAll(tuples(replies.get(i + 2)));
+        }
+        above.sort(REVERSE_ORDER);
+        below.sort(REVERSE_ORDER);
+        List<ZSetOperations.TypedTuple<Long>> window = new ArrayList<>(2 * k + 1);
+        window.addAll(above.subList(Math.max(above.size() - k, 0), above.size()));
+        int before = window.size();
+        window.add(own.window().get(self));
+        window.addAll(below.subList(0, Math.min(k, below.size())));
+        return new Around(rank, own.score(), rank - before, window);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Around aroundInShard(String key, Long bookId, int k) {
+        // 脚本返回的成员与分数都按字符串反序列化，整数回复不经过序列化器
+        RedisSerializer serializer = RedisSerializer.string();
+        List<?> reply = rankRedisTemplate.execute(AROUND_SCRIPT, serializer, serializer,
+                List.of(key), bookId.toString(), Integer.toString(k));
+        if (reply == null || reply.isEmpty()) {
+            return null;
+        }
+        List<?> members = (List<?>) reply.get(3);
+        List<ZSetOperations.TypedTuple<Long>> window = new ArrayList<>(members.size() / 2);
+        for (int i = 0; i + 1 < members.size(); i += 2) {
+            window.add(new DefaultTypedTuple<>(Long.valueOf((String) members.get(i)),
+                    Double.valueOf((String) members.get(i + 1))));
+        }
+        return new Around((Long) reply.get(0), Double.parseDouble((String) reply.get(1)), (Long) reply.get(2), window);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ZSetOperations.TypedTuple<Long>> tuples(Object reply) {
+        return reply == null ? List.of() : List.copyOf((Set<ZSetOperations.TypedTuple<Long>>) reply);
+    }
+
+    /**
+     * 书籍的名次与前后的窗口
+     * @param rank 书籍的名次，从0开始
+     * @param score 书籍的分数
+     * @param firstRank 窗口中第一本书的名次
+     * @param window 按名次排列的窗口，包含书籍本身
+     */
+    public record Around(long rank, double score, long firstRank, List<ZSetOperations.TypedTuple<Long>> window) {
+    }
+
+    /**
+     * k路归并：堆中只保存每个分片当前的队首，每次弹出最大者并把该分片的下一名放入堆中
+     * @param shards 每个分片按分数从高到低排列的前end + 1名
+     * @param start 开始索引
+     * @param end 结束索引
+     * @return 合并后第start到end名的书籍主键
+     */
+    static List<Long> merge(List<List<ZSetOperations.TypedTuple<Long>>> shards, long start, long end) {
+        PriorityQueue<Head> heap = new PriorityQueue<>(Math.max(shards.size(), 1),
+                (a, b) -> REVERSE_ORDER.compare(a.tuple(), b.tuple()));
+        for (List<ZSetOperations.TypedTuple<Long>> shard : shards) {
+            if (!shard.isEmpty()) {
+                heap.add(new Head(shard, 0));
+            }
+        }
+        List<Long> bookIds = new ArrayList<>((int) Math.min(end - start + 1, 1024));
+        for (long rank = 0; rank <= end && !heap.isEmpty(); rank++) {
+            Head head = heap.poll();
+            if (rank >= start) {
+                bookIds.add(head.tuple().getValue());
+            }
+            if (head.index() + 1 < head.shard().size()) {
+                heap.add(new Head(head.shard(), head.index() + 1));
+            }
+        }
+        return bookIds;
+    }
+
+    /**
+     * 为每个分片找一个hash tag，第i个分片的slot落在16384个slot均分后的第i段中。
+     * 集群按slot区间均匀分配给各节点时，分片也就均匀分布在各节点上
+     */
+    private static List<String> tags(int count) {
+        return TAGS.computeIfAbsent(count, n -> {
+            List<String> tags = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                int from = (int) ((long) SlotHash.SLOT_COUNT * i / n);
+                int to = (int) ((long) SlotHash.SLOT_COUNT * (i + 1) / n);
+                for (int j = 0; ; j++) {
+                    String tag = "s" + j;
+                    int slot = SlotHash.getSlot(tag);
+                    if (slot >= from && slot < to) {
+                        tags.add(tag);
+                        break;
+                    }
+                }
+            }
+            return List.copyOf(tags);
+        });
+    }
+
+    private record Head(List<ZSetOperations.TypedTuple<Long>> shard, int index) {
+        ZSetOperations.TypedTuple<Long> tuple() {
+            return shard.get(index);
+        }
+    }
+}
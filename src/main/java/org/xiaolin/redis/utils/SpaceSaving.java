@@ -0,0 +1,149 @@
+package org.xiaolin.redis.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving算法：最多跟踪capacity个元素，占用内存与元素总数无关。
+ * 已跟踪的元素直接累加；未跟踪的元素替换计数最小的元素，继承其计数作为误差。
+ * 任一元素的估计值count满足 真实值 <= count <= 真实值 + error，未跟踪元素的真实值不超过{@link #min()}。
+ * 计数保存在按计数排列的最小堆中，替换和累加都是O(log capacity)。非线程安全
+ * @author xlxing
+ * @Description 高频元素统计
+ * @create 2026/10/17
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+
+    private final long[] items;
+
+    private final double[] counts;
+
+    private final double[] errors;
+
+    /**
+     * 元素 -> 在堆中的位置
+     */
+    private final Map<Long, Integer> positions;
+
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.items = new long[capacity];
+        this.counts = new double[capacity];
+        this.errors = new double[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * 记录元素出现weight次
+     */
+    public void offer(long item, double weight) {
+        Integer position = positions.get(item);
+        if (position != null) {
+            counts[position] += weight;
+            siftDown(position);
+        } else if (size < capacity) {
+            items[size] = item;
+            counts[size] = weight;
+            errors[size] = 0;
+            positions.put(item, size);
+            siftUp(size++);
+        } else {
+            // 替换计数最小的元素，新元素的真实计数最多与被替换者相同
+            positions.remove(items[0]);
+            errors[0] = counts[0];
+            counts[0] += weight;
+            items[0] = item;
+            positions.put(item, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * 所有计数乘以factor，用于时间衰减。同乘一个正数不改变堆的顺序
+     */
+    public void scale(double factor) {
+        for (int i = 0; i < size; i++) {
+            counts[i] *= factor;
+            errors[i] *= factor;
+        }
+    }
+
+    /**
+     * 未被跟踪的元素计数的上界，未满时为0
+     */
+    public double min() {
+        return size < capacity ? 0 : counts[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return 全部被跟踪的元素，无序
+     */
+    public List<Counter> counters() {
+        List<Counter> counters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            counters.add(new Counter(items[i], counts[i], errors[i]));
+        }
+        return counters;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[parent] <= counts[i]) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int smallest = left + 1 < size && counts[left + 1] < counts[left] ? left + 1 : left;
+            if (counts[i] <= counts[smallest]) {
+                break;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long item = items[i];
+        double count = counts[i];
+        double error = errors[i];
+        items[i] = items[j];
+        counts[i] = counts[j];
+        errors[i] = errors[j];
+        items[j] = item;
+        counts[j] = count;
+        errors[j] = error;
+        positions.put(items[i], i);
+        positions.put(items[j], j);
+    }
+
+    /**
+     * @param item 元素
+     * @param count 估计的计数，不小于真实值
+     * @param error 估计值最多比真实值大多少
+     */
+    public record Counter(long item, double count, double error) {
+    }
+}
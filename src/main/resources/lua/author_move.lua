@@ -0,0 +1,16 @@
+-- 把书籍的点击量从原作者移到新作者，新作者为空时只从原作者移除
+-- KEYS[1] 原作者的排行榜  KEYS[2] 新作者的排行榜  KEYS[3] 作者排行榜
+-- ARGV[1] 书籍主键  ARGV[2] 原作者主键  ARGV[3] 新作者主键，可以为空字符串
+local score = redis.call('ZSCORE', KEYS[1], ARGV[1])
+if not score then
+    return 0
+end
+redis.call('ZREM', KEYS[1], ARGV[1])
+if redis.call('ZINCRBY', KEYS[3], -score, ARGV[2]) + 0 <= 0 then
+    redis.call('ZREM', KEYS[3], ARGV[2])
+end
+if ARGV[3] ~= '' then
+    redis.call('ZINCRBY', KEYS[2], score, ARGV[1])
+    redis.call('ZINCRBY', KEYS[3], score, ARGV[3])
+end
+return 1
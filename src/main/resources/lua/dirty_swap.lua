@@ -0,0 +1,10 @@
+-- 取出待持久化集合：上次未处理完的集合优先，否则把当前集合改名为处理中集合
+-- KEYS[1] 待持久化集合  KEYS[2] 处理中集合
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    return 1
+end
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+redis.call('RENAME', KEYS[1], KEYS[2])
+return 1
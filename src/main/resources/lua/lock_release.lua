@@ -0,0 +1,6 @@
+-- 只释放自己持有的锁，锁已过期并被其他实例取得时不删除
+-- KEYS[1] 锁  ARGV[1] 加锁时写入的令牌
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
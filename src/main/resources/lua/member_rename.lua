@@ -0,0 +1,33 @@
+-- 把旧编码的成员合并到规范编码的成员上
+-- KEYS[1] 排行榜或集合key  ARGV[1] 旧成员  ARGV[2] 新成员  ARGV[3] 1表示对数空间的排行榜
+local t = redis.call('TYPE', KEYS[1])['ok']
+if t == 'set' then
+    if redis.call('SREM', KEYS[1], ARGV[1]) == 1 then
+        redis.call('SADD', KEYS[1], ARGV[2])
+        return 1
+    end
+    return 0
+end
+if t ~= 'zset' then
+    return 0
+end
+local old = redis.call('ZSCORE', KEYS[1], ARGV[1])
+if not old then
+    return 0
+end
+redis.call('ZREM', KEYS[1], ARGV[1])
+local delta = tonumber(old)
+local current = redis.call('ZSCORE', KEYS[1], ARGV[2])
+if ARGV[3] == '1' and current then
+    local c = tonumber(current)
+    local score
+    if c > delta then
+        score = c + math.log(1 + math.exp(delta - c))
+    else
+        score = delta + math.log(1 + math.exp(c - delta))
+    end
+    redis.call('ZADD', KEYS[1], string.format('%.17g', score), ARGV[2])
+else
+    redis.call('ZINCRBY', KEYS[1], delta, ARGV[2])
+end
+return 1
@@ -0,0 +1,11 @@
+-- 书籍的名次、分数及前后各k名，一次往返完成，复杂度O(log N + k)
+-- KEYS[1] 排行榜  ARGV[1] 书籍主键  ARGV[2] k
+-- 返回 {名次, 分数, 窗口第一名的名次, 成员与分数交替排列的窗口}，名次从0开始；书籍不在排行榜中时返回空列表
+local rank = redis.call('ZREVRANK', KEYS[1], ARGV[1])
+if not rank then
+    return {}
+end
+local score = redis.call('ZSCORE', KEYS[1], ARGV[1])
+local k = tonumber(ARGV[2])
+local from = math.max(rank - k, 0)
+return {rank, score, from, redis.call('ZREVRANGE', KEYS[1], from, rank + k, 'WITHSCORES')}
@@ -0,0 +1,12 @@
+-- 把重建期间排行榜上新增的点击累加到临时key，再用临时key替换排行榜
+-- KEYS[1] 排行榜  KEYS[2] 临时key
+if redis.call('EXISTS', KEYS[2]) == 0 then
+    return 0
+end
+local members = redis.call('ZRANGE', KEYS[1], 0, -1, 'WITHSCORES')
+for i = 1, #members, 2 do
+    redis.call('ZINCRBY', KEYS[2], members[i + 1], members[i])
+end
+redis.call('RENAME', KEYS[2], KEYS[1])
+redis.call('PERSIST', KEYS[1])
+return 1
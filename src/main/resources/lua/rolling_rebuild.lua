@@ -0,0 +1,6 @@
+-- 由窗口内全部小时桶重建滚动窗口
+-- KEYS[1] 窗口排行榜  KEYS[2] 窗口游标  KEYS[3..] 窗口内的小时桶
+-- ARGV[1] 重建后的游标
+redis.call('ZUNIONSTORE', KEYS[1], #KEYS - 2, unpack(KEYS, 3))
+redis.call('SET', KEYS[2], ARGV[1])
+return 1
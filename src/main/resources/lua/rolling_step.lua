@@ -0,0 +1,11 @@
+-- 滚动窗口前进一小时：加上最新关闭的小时桶，减去移出窗口的小时桶
+-- KEYS[1] 窗口排行榜  KEYS[2] 窗口游标  KEYS[3] 新加入的小时桶  KEYS[4] 移出窗口的小时桶
+-- ARGV[1] 期望的当前游标  ARGV[2] 前进后的游标
+local cursor = redis.call('GET', KEYS[2])
+if cursor ~= ARGV[1] then
+    return 0
+end
+redis.call('ZUNIONSTORE', KEYS[1], 3, KEYS[1], KEYS[3], KEYS[4], 'WEIGHTS', 1, 1, -1)
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', 0)
+redis.call('SET', KEYS[2], ARGV[2])
+return 1
@@ -0,0 +1,15 @@
+-- 对数空间的ZINCRBY：score = log(exp(score) + exp(delta))
+-- KEYS[1] 排行榜key  ARGV[1] 成员  ARGV[2] 对数增量
+local delta = tonumber(ARGV[2])
+local score = delta
+local current = redis.call('ZSCORE', KEYS[1], ARGV[1])
+if current then
+    local c = tonumber(current)
+    if c > delta then
+        score = c + math.log(1 + math.exp(delta - c))
+    else
+        score = delta + math.log(1 + math.exp(c - delta))
+    end
+end
+redis.call('ZADD', KEYS[1], string.format('%.17g', score), ARGV[1])
+return string.format('%.17g', score)
@@ -11,7 +11,8 @@ CREATE TABLE `book` (
                              `comment_num` int unsigned NOT NULL COMMENT '评论数',
                              `create_time` datetime DEFAULT NULL COMMENT '创建时间',
                              `update_time` datetime DEFAULT NULL COMMENT '更新时间',
-                             PRIMARY KEY (`id`)
+                             PRIMARY KEY (`id`),
+                             KEY `idx_update_time_id` (`update_time`, `id`) COMMENT '按更新时间倒序的游标分页'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='书籍';
 
 
@@ -0,0 +1,74 @@
+package org.xiaolin.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.common.req.BookUpdateDto;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.service.AuthorRankService;
+import org.xiaolin.redis.service.BookService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author xlxing
+ * @Description 作者的书籍排行榜与作者排行榜，书籍换作者、删除时点击量随之移动
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class AuthorRankTest {
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorRankService authorRankService;
+
+    @Autowired
+    private RedisTemplate<String, Long> rankRedisTemplate;
+
+    @Test
+    public void testAuthorBoards() {
+        Long oldAuthor = 880_001L;
+        Long newAuthor = 880_002L;
+        Book book = new Book(oldAuthor, "author-test");
+        bookService.save(book);
+        Long bookId = book.getId();
+        String oldKey = RedisConstant.getAuthorSortKey(oldAuthor);
+        String newKey = RedisConstant.getAuthorSortKey(newAuthor);
+        try {
+            for (int i = 0; i < 3; i++) {
+                bookService.getBook(bookId);
+            }
+            assertEquals(3.0, rankRedisTemplate.opsForZSet().score(oldKey, bookId));
+            assertEquals(3.0, rankRedisTemplate.opsForZSet().score(RedisConstant.AUTHORS_SORT_KEY, oldAuthor));
+            assertEquals(List.of(bookId), bookService.rankAuthorBook(oldAuthor, 0, 9).getData().stream().map(Book::getId).toList());
+            assertTrue(authorRankService.rankAuthors(0, -1).stream().anyMatch(a -> a.getAuthorId().equals(oldAuthor)));
+
+            bookService.updateBook(new BookUpdateDto(bookId, "author-test", newAuthor));
+            assertFalse(Boolean.TRUE.equals(rankRedisTemplate.hasKey(oldKey)));
+            assertNull(rankRedisTemplate.opsForZSet().score(RedisConstant.AUTHORS_SORT_KEY, oldAuthor));
+            assertEquals(3.0, rankRedisTemplate.opsForZSet().score(newKey, bookId));
+            assertEquals(3.0, rankRedisTemplate.opsForZSet().score(RedisConstant.AUTHORS_SORT_KEY, newAuthor));
+
+            // 换作者后的点击计入新作者
+            bookService.getBook(bookId);
+            assertEquals(4.0, rankRedisTemplate.opsForZSet().score(newKey, bookId));
+            assertEquals(4.0, rankRedisTemplate.opsForZSet().score(RedisConstant.AUTHORS_SORT_KEY, newAuthor));
+
+            bookService.deleteBook(bookId);
+            assertFalse(Boolean.TRUE.equals(rankRedisTemplate.hasKey(newKey)));
+            assertNull(rankRedisTemplate.opsForZSet().score(RedisConstant.AUTHORS_SORT_KEY, newAuthor));
+        } finally {
+            bookService.removeById(bookId);
+            rankRedisTemplate.delete(List.of(oldKey, newKey));
+            rankRedisTemplate.opsForZSet().remove(RedisConstant.AUTHORS_SORT_KEY, oldAuthor, newAuthor);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.xiaolin.redis;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.service.BoardRebuildService;
+import org.xiaolin.redis.service.BookService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author xlxing
+ * @Description 总排行榜为空时从MySQL的click_num重建
+ * @create 2026/10/17
+ */
+@SpringBootTest(properties = {"rank.rebuild.enabled=false", "rank.author.enabled=false", "rank.rebuild.batch-size=100"})
+public class BoardRebuildTest {
+    @Autowired
+    private BoardRebuildService boardRebuildService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RedisTemplate<String, Long> rankRedisTemplate;
+
+    @Test
+    public void testRebuild() {
+        String sortKey = RedisConstant.getSortKey();
+        String backupKey = sortKey + ":test-backup";
+        boolean existed = Boolean.TRUE.equals(rankRedisTemplate.hasKey(sortKey));
+        if (existed) {
+            rankRedisTemplate.rename(sortKey, backupKey);
+        }
+        try {
+            List<Book> books = bookService.list(new LambdaQueryWrapper<Book>().gt(Book::getClickNum, 0));
+            // 重建开始前已经到达的点击不能被覆盖
+            Long clicked = books.get(0).getId();
+            rankRedisTemplate.opsForZSet().incrementScore(sortKey, clicked, 1);
+            assertEquals(books.size(), boardRebuildService.rebuild());
+            assertEquals(books.size(), rankRedisTemplate.opsForZSet().zCard(sortKey));
+            books.forEach(book -> assertEquals(book.getClickNum() + (book.getId().equals(clicked) ? 1.0 : 0.0),
+                    rankRedisTemplate.opsForZSet().score(sortKey, book.getId())));
+            assertEquals(-1L, rankRedisTemplate.getExpire(sortKey));
+        } finally {
+            rankRedisTemplate.delete(sortKey);
+            if (existed) {
+                rankRedisTemplate.rename(backupKey, sortKey);
+            }
+        }
+    }
+}
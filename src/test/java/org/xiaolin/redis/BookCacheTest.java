@@ -0,0 +1,50 @@
+package org.xiaolin.redis;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.xiaolin.redis.cache.BookCache;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.mapper.BookMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author xlxing
+ * @Description 书籍本地缓存通过发布订阅失效
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class BookCacheTest {
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @Test
+    public void testInvalidateByMessage() throws InterruptedException {
+        Book book = new Book(1L, "Cache");
+        bookMapper.insert(book);
+        assertEquals("Cache", bookCache.get(book.getId()).getName());
+
+        // 模拟其他实例修改了书籍
+        bookMapper.update(null, new LambdaUpdateWrapper<Book>()
+                .eq(Book::getId, book.getId())
+                .set(Book::getName, "Cache2"));
+        assertEquals("Cache", bookCache.get(book.getId()).getName());
+
+        redisTemplate.convertAndSend(RedisConstant.BOOK_CACHE_CHANNEL, book.getId());
+        for (int i=0; i<50 && "Cache".equals(bookCache.get(book.getId()).getName()); i++) {
+            Thread.sleep(100);
+        }
+        assertEquals("Cache2", bookCache.get(book.getId()).getName());
+        bookMapper.deleteById(book.getId());
+    }
+}
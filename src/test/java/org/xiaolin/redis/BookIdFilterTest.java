@@ -0,0 +1,115 @@
+package org.xiaolin.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.xiaolin.redis.cache.BookIdFilter;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.exception.GlobalException;
+import org.xiaolin.redis.mapper.BookMapper;
+import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.utils.BloomFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author xlxing
+ * @Description 布隆过滤器拒绝不存在的书籍主键，新增的书籍立即可查
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class BookIdFilterTest {
+    @Autowired
+    private BookIdFilter bookIdFilter;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Test
+    public void testRejectMissingBook() throws InterruptedException {
+        // 重建前删除的书籍主键小于最大主键，会被过滤器拒绝
+        List<Book> removed = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            removed.add(new Book(1L, "filter-removed-" + i));
+        }
+        bookService.saveBatch(removed);
+        bookMapper.deleteBatchIds(removed.stream().map(Book::getId).toList());
+        Book kept = new Book(1L, "filter-kept");
+        bookMapper.insert(kept);
+        bookIdFilter.rebuild();
+
+        // 重建之后批量写入的书籍主键大于最大主键，不经过过滤器
+        Book added = new Book(1L, "filter-test");
+        bookService.saveBatch(List.of(added));
+        try {
+            assertTrue(bookIdFilter.mightExist(kept.getId()));
+            assertTrue(bookIdFilter.mightExist(added.getId()));
+            assertEquals("filter-test", bookService.getBook(added.getId()).getData().getName());
+
+            // 找一个被过滤器拒绝的已删除主键，不查询数据库
+            Long missingId = removed.stream().map(Book::getId)
+                    .filter(id -> !bookIdFilter.mightExist(id))
+                    .findFirst().orElseThrow();
+            double selects = selectCount();
+            double rejected = meterRegistry.counter("rank.book_filter.rejected").count();
+            assertThrows(GlobalException.class, () -> bookService.getBook(missingId));
+            assertEquals(selects, selectCount());
+            assertTrue(meterRegistry.counter("rank.book_filter.rejected").count() > rejected);
+
+            // 小于最大主键的新书（例如指定主键导入）经失效频道广播后可查
+            Long importedId = removed.stream().map(Book::getId)
+                    .filter(id -> !id.equals(missingId) && !bookIdFilter.mightExist(id))
+                    .findFirst().orElseThrow();
+            redisTemplate.convertAndSend(RedisConstant.BOOK_CACHE_CHANNEL, importedId);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!bookIdFilter.mightExist(importedId) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(bookIdFilter.mightExist(importedId));
+            bookIdFilter.add(missingId);
+            assertTrue(bookIdFilter.mightExist(missingId));
+        } finally {
+            bookMapper.deleteBatchIds(List.of(kept.getId(), added.getId()));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (long i = 1; i <= 100_000; i++) {
+            filter.put(i);
+        }
+        for (long i = 1; i <= 100_000; i++) {
+            assertTrue(filter.mightContain(i));
+        }
+        int falsePositives = 0;
+        for (long i = 100_001; i <= 200_000; i++) {
+            if (filter.mightContain(i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    private double selectCount() {
+        var timer = meterRegistry.find("rank.mysql").tag("op", "select_by_id").timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -5,20 +5,29 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.core.BoundZSetOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.xiaolin.redis.common.constant.RedisConstant;
 import org.xiaolin.redis.common.resp.R;
 import org.xiaolin.redis.domain.Book;
 import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.utils.RedisBatch;
+import org.xiaolin.redis.utils.RedisZSet;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 /**
  * @author xlxing
  * @Description
@@ -32,6 +41,12 @@ public class BookTest {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private RedisZSet redisZSet;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
     @Test
     public void testAddBooks() {
         String daySortKey = RedisConstant.getSortDayKey();
@@ -95,4 +110,68 @@ public class BookTest {
         System.out.println(duration.getSeconds());
     }
 
+    /**
+     * 对比逐条ZINCRBY与pipeline批量写入四个排行榜的点击延迟
+     */
+    @Test
+    public void testClickLatency() {
+        String[] keys = {RedisConstant.getSortKey(), RedisConstant.getSortHourKey(),
+                RedisConstant.getSortDayKey(), RedisConstant.getSmoothSortKey()};
+        int rounds = 10000;
+        long[] sequential = new long[rounds];
+        long[] pipelined = new long[rounds];
+        Random random = new Random();
+        for (int i=0; i<rounds; i++) {
+            long bookId = random.nextLong(1, 30);
+            long begin = System.nanoTime();
+            for (String key : keys) {
+                redisTemplate.boundZSetOps(key).incrementScore(bookId, 1.0);
+            }
+            sequential[i] = System.nanoTime() - begin;
+
+            RedisBatch batch = new RedisBatch();
+            for (String key : keys) {
+                batch.incrementScore(key, bookId, 1.0);
+            }
+            begin = System.nanoTime();
+            redisZSet.execute("click", batch);
+            pipelined[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(sequential);
+        Arrays.sort(pipelined);
+        System.out.printf("sequential p50=%dus p99=%dus%n", sequential[rounds / 2] / 1000, sequential[rounds * 99 / 100] / 1000);
+        System.out.printf("pipelined  p50=%dus p99=%dus%n", pipelined[rounds / 2] / 1000, pipelined[rounds * 99 / 100] / 1000);
+    }
+
+    /**
+     * 服务端清空脚本缓存后，EVALSHA返回NOSCRIPT，改用EVAL重发并补上过期时间
+     */
+    @Test
+    public void testLogAddAfterScriptFlush() {
+        String key = "book:test:log-add";
+        long expireAt = Instant.now().plusSeconds(600).getEpochSecond();
+        List<Runnable> executors = List.of(
+                () -> redisZSet.execute("click", batch(key, expireAt)),
+                () -> redisZSet.executeAsync("click", batch(key, expireAt)).join(),
+                () -> redisZSet.executeReactive("click", batch(key, expireAt)).block());
+        for (Runnable executor : executors) {
+            stringRedisTemplate.delete(key);
+            stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+                connection.scriptingCommands().scriptFlush();
+                return null;
+            });
+            executor.run();
+            assertEquals(0.0, stringRedisTemplate.opsForZSet().score(key, "7"), 1e-9);
+            assertTrue(stringRedisTemplate.getExpire(key) > 0);
+            // 脚本已经重新载入缓存
+            executor.run();
+            assertEquals(Math.log(2), stringRedisTemplate.opsForZSet().score(key, "7"), 1e-9);
+        }
+        stringRedisTemplate.delete(key);
+    }
+
+    private static RedisBatch batch(String key, long expireAt) {
+        return new RedisBatch().logAddScore(key, 7L, 0.0).expireAt(key, expireAt);
+    }
+
 }
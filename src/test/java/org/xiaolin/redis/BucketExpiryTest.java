@@ -0,0 +1,74 @@
+package org.xiaolin.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.service.BucketExpiryService;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author xlxing
+ * @Description 分桶排行榜写入时带过期时间，过期的桶被清理
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class BucketExpiryTest {
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BucketExpiryService bucketExpiryService;
+
+    @Test
+    public void testExpireOnWrite() {
+        bookService.getBook(1L);
+        for (String key : new String[]{RedisConstant.getSortHourKey(), RedisConstant.getSortDayKey(),
+                RedisConstant.getSmoothSortKey()}) {
+            Long ttl = stringRedisTemplate.getExpire(key);
+            assertTrue(ttl != null && ttl > 0, key);
+        }
+        assertNull(bucketExpiryService.deadline(RedisConstant.getSortKey()));
+    }
+
+    @Test
+    public void testHourRetention() {
+        // 小时桶保留到移出最长滚动窗口之后，只多留两小时余量
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        long closedAt = hour.plusHours(1).atZone(ZoneId.systemDefault()).toEpochSecond();
+        long deadline = bucketExpiryService.deadline(RedisConstant.getSortHourKey(hour));
+        assertTrue(deadline >= closedAt + 168 * 3600L);
+        assertTrue(deadline <= closedAt + (168 + 2) * 3600L);
+    }
+
+    @Test
+    public void testSweep() {
+        String expiredKey = RedisConstant.getSortHourKey(LocalDateTime.now().minusDays(30));
+        String liveKey = RedisConstant.getSortDayKey(LocalDateTime.now().minusDays(1));
+        stringRedisTemplate.opsForZSet().add(expiredKey, "1", 1);
+        stringRedisTemplate.opsForZSet().add(liveKey, "1", 1);
+        stringRedisTemplate.persist(liveKey);
+
+        bucketExpiryService.sweep();
+
+        assertFalse(Boolean.TRUE.equals(stringRedisTemplate.hasKey(expiredKey)));
+        Long ttl = stringRedisTemplate.getExpire(liveKey);
+        assertTrue(ttl != null && ttl > 0);
+        assertEquals(bucketExpiryService.deadline(liveKey),
+                System.currentTimeMillis() / 1000 + ttl, 2);
+        stringRedisTemplate.delete(liveKey);
+    }
+}
@@ -0,0 +1,129 @@
+package org.xiaolin.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.xiaolin.redis.utils.ClickBuffer;
+import org.xiaolin.redis.utils.RedisBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author xlxing
+ * @Description 点击合并缓冲区在并发写入与刷新下不丢失增量
+ * @create 2026/10/17
+ */
+@SpringBootTest(properties = "rank.click.max-buffered-entries=100")
+public class ClickBufferTest {
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ClickBuffer clickBuffer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testConcurrentAddAndFlush() throws InterruptedException {
+        String key = "book:test:buffer";
+        redisTemplate.delete(key);
+        int threads = 8;
+        int clicks = 50000;
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (running.get()) {
+                clickBuffer.flush();
+            }
+        });
+        flusher.start();
+
+        List<Thread> writers = new ArrayList<>();
+        for (int t=0; t<threads; t++) {
+            Thread writer = new Thread(() -> {
+                Random random = new Random();
+                for (int i=0; i<clicks; i++) {
+                    clickBuffer.add(new RedisBatch().incrementScore(key, random.nextLong(1, 50), 1.0));
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        running.set(false);
+        flusher.join();
+        clickBuffer.flush();
+
+        double total = redisTemplate.opsForZSet().rangeWithScores(key, 0, -1)
+                .stream()
+                .mapToDouble(tuple -> tuple.getScore() == null ? 0 : tuple.getScore())
+                .sum();
+        assertEquals((double) threads * clicks, total);
+        redisTemplate.delete(key);
+    }
+
+    @Test
+    public void testCapacity() {
+        String key = "book:test:buffer:cap";
+        redisTemplate.delete(key);
+        clickBuffer.flush();
+        double droppedBefore = meterRegistry.counter("rank.click.buffer.dropped").count();
+        int clicks = 1000;
+        // 不同的书籍超出上限，请求线程不刷新，只通知后台线程或丢弃
+        for (int i=0; i<clicks; i++) {
+            clickBuffer.add(new RedisBatch().incrementScore(key, (long) i, 1.0));
+        }
+        clickBuffer.flush();
+
+        double written = redisTemplate.opsForZSet().rangeWithScores(key, 0, -1)
+                .stream()
+                .mapToDouble(tuple -> tuple.getScore() == null ? 0 : tuple.getScore())
+                .sum();
+        double dropped = meterRegistry.counter("rank.click.buffer.dropped").count() - droppedBefore;
+        assertTrue(dropped > 0);
+        assertEquals(clicks, written + dropped);
+        redisTemplate.delete(key);
+    }
+
+    @Test
+    public void testLogAddScore() throws InterruptedException {
+        String key = "book:test:decay";
+        redisTemplate.delete(key);
+        double logDelta = 3000.5;
+        int threads = 4;
+        int clicks = 10000;
+
+        List<Thread> writers = new ArrayList<>();
+        for (int t=0; t<threads; t++) {
+            Thread writer = new Thread(() -> {
+                for (int i=0; i<clicks; i++) {
+                    clickBuffer.add(new RedisBatch().logAddScore(key, 1L, logDelta));
+                    if (i % 1000 == 0) {
+                        clickBuffer.flush();
+                    }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        clickBuffer.flush();
+
+        Double score = redisTemplate.opsForZSet().score(key, 1L);
+        assertEquals(logDelta + Math.log(threads * clicks), score, 1e-9);
+        redisTemplate.delete(key);
+    }
+}
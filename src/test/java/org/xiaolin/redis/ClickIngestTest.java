@@ -0,0 +1,165 @@
+package org.xiaolin.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.common.resp.ClickIngestResult;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.service.ClickIngestService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * @author xlxing
+ * @Description 批量导入点击：按时间路由到分桶排行榜，跳过已过期的分桶，补上已滚入滚动窗口的增量
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class ClickIngestTest {
+    @Autowired
+    private ClickIngestService clickIngestService;
+
+    @Autowired
+    private RedisTemplate<String, Long> rankRedisTemplate;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testIngest() {
+        long bookId = 424_243L;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime threeHoursAgo = now.truncatedTo(ChronoUnit.HOURS).minusHours(3);
+        LocalDateTime longAgo = now.minusDays(40);
+        String rollingKey = RedisConstant.getRollingSortKey(24);
+        String cursorKey = RedisConstant.getRollingCursorKey(24);
+        String savedCursor = stringRedisTemplate.opsForValue().get(cursorKey);
+        // 窗口已经滚到上一个小时，三小时前的小时桶已在窗口内
+        stringRedisTemplate.opsForValue().set(cursorKey,
+                now.truncatedTo(ChronoUnit.HOURS).minusHours(1).format(DateTimeFormatter.ofPattern("yyyyMMddHH")));
+        try {
+            String ndjson = String.join("\n",
+                    event(bookId, 2, now),
+                    event(bookId, 3, threeHoursAgo),
+                    event(bookId, 5, longAgo),
+                    "{\"bookId\":" + bookId + "}",
+                    "{\"bookId\":-1,\"count\":1}",
+                    "{\"bookId\":" + bookId + ",\"count\":0}");
+            ClickIngestResult result = clickIngestService.ingestNdjson(
+                    new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(6, result.getEvents());
+            assertEquals(2, result.getSkipped());
+
+            ByteBuffer binary = ByteBuffer.allocate(40);
+            binary.putLong(bookId).putInt(4).putLong(millis(threeHoursAgo));
+            binary.putLong(bookId).putInt(6).putLong(millis(now));
+            result = clickIngestService.ingestBinary(new ByteArrayInputStream(binary.array()));
+            assertEquals(2, result.getEvents());
+
+            assertEquals(2 + 3 + 5 + 1 + 4 + 6, rankRedisTemplate.opsForZSet().score(RedisConstant.getSortKey(), bookId));
+            assertEquals(2 + 1 + 6, rankRedisTemplate.opsForZSet().score(RedisConstant.getSortHourKey(now), bookId));
+            assertEquals(3 + 4, rankRedisTemplate.opsForZSet().score(RedisConstant.getSortHourKey(threeHoursAgo), bookId));
+            assertEquals(3 + 4, rankRedisTemplate.opsForZSet().score(rollingKey, bookId));
+            // 40天前的小时桶已过保留期，不会被重新创建
+            assertFalse(Boolean.TRUE.equals(rankRedisTemplate.hasKey(RedisConstant.getSortHourKey(longAgo))));
+        } finally {
+            for (String key : new String[]{RedisConstant.getSortKey(), RedisConstant.getSortHourKey(now),
+                    RedisConstant.getSortHourKey(threeHoursAgo), RedisConstant.getSortDayKey(now),
+                    RedisConstant.getSortDayKey(threeHoursAgo), RedisConstant.getSmoothSortKey(now),
+                    RedisConstant.getSmoothSortKey(threeHoursAgo), RedisConstant.getSmoothSortKey(longAgo),
+                    RedisConstant.getSortDayKey(longAgo), RedisConstant.getDecaySortKey(), rollingKey,
+                    RedisConstant.getRollingSortKey(168)}) {
+                rankRedisTemplate.opsForZSet().remove(key, bookId);
+            }
+            if (savedCursor == null) {
+                stringRedisTemplate.delete(cursorKey);
+            } else {
+                stringRedisTemplate.opsForValue().set(cursorKey, savedCursor);
+            }
+        }
+    }
+
+    @Test
+    public void testIngestAuthors() {
+        long authorId = 880_101L;
+        Book book = new Book(authorId, "ingest-author");
+        bookService.save(book);
+        String authorKey = RedisConstant.getAuthorSortKey(authorId);
+        try {
+            double singleSelects = mysqlCount("select_author");
+            LocalDateTime now = LocalDateTime.now();
+            String ndjson = String.join("\n", event(book.getId(), 2, now), event(book.getId(), 3, now),
+                    event(book.getId() + 1_000_000_000L, 1, now));
+            clickIngestService.ingestNdjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+            assertEquals(5.0, rankRedisTemplate.opsForZSet().score(authorKey, book.getId()));
+            assertEquals(5.0, rankRedisTemplate.opsForZSet().score(RedisConstant.AUTHORS_SORT_KEY, authorId));
+            // 作者按批查询，不逐本查询
+            assertEquals(singleSelects, mysqlCount("select_author"));
+        } finally {
+            bookService.deleteBook(book.getId());
+            rankRedisTemplate.delete(authorKey);
+            rankRedisTemplate.opsForZSet().remove(RedisConstant.AUTHORS_SORT_KEY, authorId);
+        }
+    }
+
+    /**
+     * 一天的离线日志：100万次点击分布在1万本书和24个小时上，日志按时间顺序回放
+     */
+    @Test
+    public void testBackfillThroughput() {
+        int events = 1_000_000;
+        Random random = new Random(42);
+        long begin = millis(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusDays(1));
+        ByteBuffer binary = ByteBuffer.allocate(events * 20);
+        for (int i=0; i<events; i++) {
+            binary.putLong(900_000L + random.nextInt(10_000)).putInt(1).putLong(begin + i * (24 * 3600_000L / events));
+        }
+        ClickIngestResult result = clickIngestService.ingestBinary(new ByteArrayInputStream(binary.array()));
+        System.out.println(result);
+        assertEquals(events, result.getEvents());
+
+        // 清理测试书籍
+        for (String key : stringRedisTemplate.keys("book:*")) {
+            if ("zset".equals(stringRedisTemplate.type(key).code())) {
+                stringRedisTemplate.opsForZSet().removeRangeByLex(key, Range.rightOpen("900000", "910000"));
+            }
+        }
+    }
+
+    private double mysqlCount(String op) {
+        Timer timer = meterRegistry.find("rank.mysql").tag("op", op).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private static String event(long bookId, long count, LocalDateTime time) {
+        return "{\"bookId\":" + bookId + ",\"count\":" + count + ",\"timestamp\":" + millis(time) + "}";
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
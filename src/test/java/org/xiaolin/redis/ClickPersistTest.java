@@ -0,0 +1,82 @@
+package org.xiaolin.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.mapper.BookMapper;
+import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.service.ClickPersistService;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author xlxing
+ * @Description 总排行榜完整持久化到MySQL
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class ClickPersistTest {
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @Autowired
+    private ClickPersistService clickPersistService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Test
+    public void testPersistAll() {
+        Random random = new Random();
+        List<Book> books = bookMapper.selectList(null);
+        books.forEach(b -> redisTemplate.opsForZSet().add(RedisConstant.getSortKey(), b.getId(), random.nextInt(1000)));
+
+        clickPersistService.persistAll();
+
+        for (Book book : books) {
+            Double score = redisTemplate.opsForZSet().score(RedisConstant.getSortKey(), book.getId());
+            assertEquals(score == null ? null : score.intValue(), bookMapper.selectById(book.getId()).getClickNum());
+        }
+    }
+
+    @Test
+    public void testPersistDirty() {
+        Book book = bookMapper.selectList(null).get(0);
+        for (int i=0; i<3; i++) {
+            bookService.getBook(book.getId());
+        }
+        assertEquals(Boolean.TRUE, redisTemplate.opsForSet().isMember(RedisConstant.DIRTY_SET_KEY, book.getId()));
+
+        clickPersistService.persistDirty();
+
+        Double score = redisTemplate.opsForZSet().score(RedisConstant.getSortKey(), book.getId());
+        assertEquals(score == null ? null : score.intValue(), bookMapper.selectById(book.getId()).getClickNum());
+        assertEquals(Boolean.FALSE, redisTemplate.hasKey(RedisConstant.DIRTY_SET_KEY));
+    }
+
+    @Test
+    public void testSkipWhileRebuilding() {
+        Book book = bookMapper.selectList(null).get(0);
+        bookService.getBook(book.getId());
+        Integer clickNum = bookMapper.selectById(book.getId()).getClickNum();
+        redisTemplate.opsForValue().set(RedisConstant.REBUILD_FENCE_KEY, "test");
+        try {
+            clickPersistService.persistDirty();
+            clickPersistService.persistAll();
+            assertEquals(clickNum, bookMapper.selectById(book.getId()).getClickNum());
+            assertEquals(Boolean.TRUE, redisTemplate.opsForSet().isMember(RedisConstant.DIRTY_SET_KEY, book.getId()));
+        } finally {
+            redisTemplate.delete(RedisConstant.REBUILD_FENCE_KEY);
+        }
+        clickPersistService.persistDirty();
+    }
+}
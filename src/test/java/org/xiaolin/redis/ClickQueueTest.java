@@ -0,0 +1,106 @@
+package org.xiaolin.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.utils.ClickQueue;
+import org.xiaolin.redis.utils.RedisBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author xlxing
+ * @Description 异步点击队列：阻塞策略下不丢失点击，丢弃策略下丢弃的点击被计数
+ * @create 2026/10/17
+ */
+@SpringBootTest(properties = "rank.click.mode=async")
+public class ClickQueueTest {
+    @Autowired
+    private RedisTemplate<String, Long> rankRedisTemplate;
+
+    @Autowired
+    private ClickQueue clickQueue;
+
+    @Autowired
+    private RankProperties rankProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testBlock() throws InterruptedException {
+        RankProperties.Click click = rankProperties.getClick();
+        click.setOverflow(RankProperties.OverflowPolicy.BLOCK);
+        click.setQueueCapacity(100);
+        try {
+            String key = "book:test:queue:block";
+            AtomicInteger accepted = offer(key, 8, 5000);
+            assertEquals(8 * 5000, accepted.get());
+            assertEquals(accepted.get(), awaitTotal(key, accepted.get()));
+            rankRedisTemplate.delete(key);
+        } finally {
+            click.setOverflow(RankProperties.OverflowPolicy.DROP);
+            click.setQueueCapacity(100_000);
+        }
+    }
+
+    @Test
+    public void testDrop() throws InterruptedException {
+        RankProperties.Click click = rankProperties.getClick();
+        click.setQueueCapacity(10);
+        try {
+            String key = "book:test:queue:drop";
+            double droppedBefore = meterRegistry.counter("rank.click.queue.dropped").count();
+            AtomicInteger accepted = offer(key, 8, 5000);
+            double dropped = meterRegistry.counter("rank.click.queue.dropped").count() - droppedBefore;
+            assertTrue(dropped > 0);
+            assertEquals(8 * 5000, accepted.get() + (long) dropped);
+            assertEquals(accepted.get(), awaitTotal(key, accepted.get()));
+            rankRedisTemplate.delete(key);
+        } finally {
+            click.setQueueCapacity(100_000);
+        }
+    }
+
+    private AtomicInteger offer(String key, int threads, int clicks) throws InterruptedException {
+        rankRedisTemplate.delete(key);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> writers = new ArrayList<>();
+        for (int t=0; t<threads; t++) {
+            long bookId = t % 4;
+            Thread writer = new Thread(() -> {
+                for (int i=0; i<clicks; i++) {
+                    if (clickQueue.offer(new RedisBatch().incrementScore(key, bookId, 1.0))) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        return accepted;
+    }
+
+    private double awaitTotal(String key, double expected) throws InterruptedException {
+        double total = 0;
+        for (int i=0; i<100 && total < expected; i++) {
+            Thread.sleep(50);
+            total = rankRedisTemplate.opsForZSet().rangeWithScores(key, 0, -1)
+                    .stream()
+                    .mapToDouble(tuple -> tuple.getScore() == null ? 0 : tuple.getScore())
+                    .sum();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,62 @@
+package org.xiaolin.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.service.EngagementService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author xlxing
+ * @Description 点赞、评论计入分桶，综合排行榜按权重合并
+ * @create 2026/10/17
+ */
+@SpringBootTest(properties = {"rank.engagement.click-weight=1", "rank.engagement.like-weight=5",
+        "rank.engagement.comment-weight=10"})
+public class EngagementTest {
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private EngagementService engagementService;
+
+    @Autowired
+    private RedisTemplate<String, Long> rankRedisTemplate;
+
+    @Test
+    public void testEngagement() {
+        Long bookId = 3L;
+        LocalDateTime now = LocalDateTime.now();
+        String likeKey = RedisConstant.getLikeDayKey(now);
+        String commentKey = RedisConstant.getCommentDayKey(now);
+        try {
+            bookService.getBook(bookId);
+            bookService.engageBook(bookId, EngagementService.Type.LIKE);
+            bookService.engageBook(bookId, EngagementService.Type.LIKE);
+            bookService.engageBook(bookId, EngagementService.Type.COMMENT);
+            assertEquals(2.0, rankRedisTemplate.opsForZSet().score(likeKey, bookId));
+            assertEquals(1.0, rankRedisTemplate.opsForZSet().score(commentKey, bookId));
+            Long ttl = rankRedisTemplate.getExpire(likeKey);
+            assertTrue(ttl != null && ttl > 0);
+
+            Double clicks = rankRedisTemplate.opsForZSet().score(RedisConstant.getSortDayKey(now), bookId);
+            assertTrue(engagementService.refresh(now) >= 1);
+            String sortKey = RedisConstant.getEngagementSortKey(now);
+            assertEquals(clicks + 2 * 5 + 10, rankRedisTemplate.opsForZSet().score(sortKey, bookId));
+            ttl = rankRedisTemplate.getExpire(sortKey);
+            assertTrue(ttl != null && ttl > 0);
+            assertTrue(bookService.rankAround(bookId, "engagement", 1).getData().getRank() >= 1);
+        } finally {
+            rankRedisTemplate.opsForZSet().remove(likeKey, bookId);
+            rankRedisTemplate.opsForZSet().remove(commentKey, bookId);
+            engagementService.refresh(now);
+        }
+    }
+}
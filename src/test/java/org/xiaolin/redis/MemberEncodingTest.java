@@ -0,0 +1,117 @@
+package org.xiaolin.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.service.MemberMigrationService;
+import org.xiaolin.redis.utils.LongRedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author xlxing
+ * @Description 排行榜成员编码：与旧数据兼容、迁移，以及十进制与定长二进制的内存对比
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class MemberEncodingTest {
+    /**
+     * Lettuce不认识MEMORY命令，借助脚本执行
+     */
+    private static final RedisScript<Long> MEMORY_USAGE_SCRIPT =
+            RedisScript.of("return redis.call('MEMORY', 'USAGE', KEYS[1], 'SAMPLES', '0')", Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private MemberMigrationService memberMigrationService;
+
+    @Test
+    public void testSerializer() {
+        Jackson2JsonRedisSerializer<Object> jackson = new Jackson2JsonRedisSerializer<>(Object.class);
+        for (long id : new long[]{0, 7, 1234567, -42, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            // 与旧的Jackson序列化结果逐字节相同，已有的key无需迁移
+            assertArrayEquals(jackson.serialize(id), LongRedisSerializer.INSTANCE.serialize(id));
+            assertEquals(id, LongRedisSerializer.INSTANCE.deserialize(jackson.serialize(id)));
+        }
+        assertEquals(12L, LongRedisSerializer.INSTANCE.deserialize("\"12\"".getBytes(StandardCharsets.UTF_8)));
+        assertNull(LongRedisSerializer.INSTANCE.deserialize(new byte[0]));
+    }
+
+    @Test
+    public void testMigrate() {
+        String key = RedisConstant.SORT_DAY_PREFIX + "19700101";
+        stringRedisTemplate.opsForZSet().add(key, "\"424242\"", 3);
+        stringRedisTemplate.opsForZSet().add(key, "424242", 2);
+        memberMigrationService.migrate();
+        assertEquals(1L, stringRedisTemplate.opsForZSet().zCard(key));
+        assertEquals(5.0, stringRedisTemplate.opsForZSet().score(key, "424242"));
+        stringRedisTemplate.delete(key);
+    }
+
+    /**
+     * 100万成员的排行榜：十进制成员与8字节二进制成员的内存占用和写入耗时，另外对比128个成员时的listpack编码
+     */
+    @Test
+    public void testMemoryUsage() {
+        int members = 1_000_000;
+        LongFunction<byte[]> decimal = LongRedisSerializer.INSTANCE::serialize;
+        LongFunction<byte[]> binary = id -> ByteBuffer.allocate(Long.BYTES).putLong(id).array();
+        for (int size : new int[]{128, members}) {
+            long decimalBytes = fill("book:bench:decimal", size, decimal);
+            long binaryBytes = fill("book:bench:binary", size, binary);
+            System.out.printf("%d个成员：十进制%d字节，二进制%d字节%n", size, decimalBytes, binaryBytes);
+        }
+
+        Jackson2JsonRedisSerializer<Object> jackson = new Jackson2JsonRedisSerializer<>(Object.class);
+        long begin = System.nanoTime();
+        for (long id = 0; id < members; id++) {
+            jackson.deserialize(jackson.serialize(id));
+        }
+        long jacksonNanos = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        for (long id = 0; id < members; id++) {
+            LongRedisSerializer.INSTANCE.deserialize(LongRedisSerializer.INSTANCE.serialize(id));
+        }
+        long compactNanos = System.nanoTime() - begin;
+        System.out.printf("序列化+反序列化%d次：Jackson %dms，LongRedisSerializer %dms%n",
+                members, jacksonNanos / 1_000_000, compactNanos / 1_000_000);
+    }
+
+    private long fill(String key, int size, LongFunction<byte[]> encoder) {
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.unlink(key);
+        long begin = System.currentTimeMillis();
+        int chunk = 10_000;
+        for (int from = 0; from < size; from += chunk) {
+            long first = from + 1;
+            long last = Math.min(size, from + chunk);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (long id = first; id <= last; id++) {
+                    connection.zSetCommands().zAdd(rawKey, id % 1000, encoder.apply(id));
+                }
+                return null;
+            });
+        }
+        long elapsed = System.currentTimeMillis() - begin;
+        Long usage = stringRedisTemplate.execute(MEMORY_USAGE_SCRIPT, List.of(key));
+        String encoding = stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                connection.keyCommands().encodingOf(rawKey).raw());
+        System.out.printf("%s：%s编码，写入%dms%n", key, encoding, elapsed);
+        stringRedisTemplate.unlink(key);
+        return usage == null ? -1 : usage;
+    }
+}
@@ -0,0 +1,57 @@
+package org.xiaolin.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.common.resp.BookRank;
+import org.xiaolin.redis.common.resp.RankEntry;
+import org.xiaolin.redis.exception.GlobalException;
+import org.xiaolin.redis.service.BookService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author xlxing
+ * @Description 书籍的名次与相邻书籍
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class RankAroundTest {
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RedisTemplate<String, Long> rankRedisTemplate;
+
+    @Test
+    public void testAround() {
+        String sortKey = RedisConstant.getUniqueSortKey();
+        try {
+            for (long bookId = 1; bookId <= 10; bookId++) {
+                rankRedisTemplate.opsForZSet().add(sortKey, bookId, 1000 - bookId);
+            }
+            BookRank bookRank = bookService.rankAround(5L, "unique", 2).getData();
+            assertEquals(5, bookRank.getRank());
+            assertEquals(995.0, bookRank.getScore());
+            List<RankEntry> neighbours = bookRank.getNeighbours();
+            assertEquals(List.of(3L, 4L, 5L, 6L, 7L), neighbours.stream().map(e -> e.getBook().getId()).toList());
+            assertEquals(List.of(3L, 4L, 5L, 6L, 7L), neighbours.stream().map(RankEntry::getRank).toList());
+
+            // 窗口在榜首截断
+            neighbours = bookService.rankAround(1L, "unique", 2).getData().getNeighbours();
+            assertEquals(List.of(1L, 2L, 3L), neighbours.stream().map(e -> e.getBook().getId()).toList());
+
+            assertThrows(GlobalException.class, () -> bookService.rankAround(999_999L, "unique", 2));
+            assertThrows(GlobalException.class, () -> bookService.rankAround(1L, "unknown", 2));
+        } finally {
+            for (long bookId = 1; bookId <= 10; bookId++) {
+                rankRedisTemplate.opsForZSet().remove(sortKey, bookId);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.xiaolin.redis;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.xiaolin.redis.metrics.RankMetrics;
+import org.xiaolin.redis.service.BookService;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author xlxing
+ * @Description 排行榜操作的耗时与成员数以Prometheus格式暴露
+ * @create 2026/10/17
+ */
+@SpringBootTest
+@AutoConfigureObservability
+public class RankMetricsTest {
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RankMetrics rankMetrics;
+
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    @Test
+    public void testScrape() {
+        bookService.getBook(1L);
+        bookService.rankBook(200, 209);
+        rankMetrics.sampleBoardSizes();
+
+        String scrape = prometheusMeterRegistry.scrape();
+        assertTrue(scrape.contains("rank_redis_seconds_bucket{board=\"click\",op=\"increment\""));
+        assertTrue(scrape.contains("rank_redis_increments_total{board=\"total\",}"));
+        assertTrue(scrape.contains("rank_redis_increments_total{board=\"hour\",}"));
+        assertTrue(scrape.contains("rank_redis_seconds_bucket{board=\"total\",op=\"range\""));
+        assertTrue(scrape.contains("rank_board_size{board=\"total\",}"));
+        assertTrue(scrape.contains("rank_persist_lag_seconds"));
+    }
+}
@@ -0,0 +1,77 @@
+package org.xiaolin.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.xiaolin.redis.cache.RankSnapshotCache;
+import org.xiaolin.redis.domain.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author xlxing
+ * @Description 排行榜快照的并发刷新只回源一次
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class RankSnapshotCacheTest {
+    @Autowired
+    private RankSnapshotCache rankSnapshotCache;
+
+    @Test
+    public void testSingleFlight() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        List<Book> top = new ArrayList<>();
+        for (long i=0; i<10; i++) {
+            top.add(new Book(i, "Book:" + i));
+        }
+
+        int threads = 16;
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Thread> readers = new ArrayList<>();
+        List<List<Book>> results = new ArrayList<>();
+        for (int t=0; t<threads; t++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    ready.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                List<Book> books = rankSnapshotCache.get("book:test:snapshot", 0, 4, () -> {
+                    loads.incrementAndGet();
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException ignored) {
+                    }
+                    return new RankSnapshotCache.Snapshot(top, true);
+                });
+                synchronized (results) {
+                    results.add(books);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        ready.countDown();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(1, loads.get());
+        results.forEach(books -> assertEquals(top.subList(0, 5), books));
+    }
+
+    @Test
+    public void testOutOfSnapshot() {
+        List<Book> top = List.of(new Book(1L, "Book:1"), new Book(2L, "Book:2"));
+        assertNull(rankSnapshotCache.get("book:test:partial", 0, 5,
+                () -> new RankSnapshotCache.Snapshot(top, false)));
+        assertEquals(top, rankSnapshotCache.get("book:test:full", 0, 5,
+                () -> new RankSnapshotCache.Snapshot(top, true)));
+    }
+}
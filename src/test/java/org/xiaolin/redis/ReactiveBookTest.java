@@ -0,0 +1,47 @@
+package org.xiaolin.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.xiaolin.redis.common.constant.RedisConstant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author xlxing
+ * @Description 响应式接口：查阅书籍记录点击，排行榜查询
+ * @create 2026/10/17
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+public class ReactiveBookTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private RedisTemplate<String, Long> rankRedisTemplate;
+
+    @Test
+    public void testClickAndRank() {
+        String hourKey = RedisConstant.getSortHourKey();
+        Double before = rankRedisTemplate.opsForZSet().score(hourKey, 1L);
+
+        webTestClient.get().uri("/book/1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data.id").isEqualTo(1);
+        Double after = rankRedisTemplate.opsForZSet().score(hourKey, 1L);
+        assertEquals((before == null ? 0 : before) + 1, after);
+
+        webTestClient.get().uri("/book/0").exchange()
+                .expectBody().jsonPath("$.code").isEqualTo("40001");
+
+        // 快照内与快照外的区间
+        for (String uri : new String[]{"/book/rank?start=0&end=9", "/book/rank?start=200&end=209"}) {
+            webTestClient.get().uri(uri).exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.data").isArray();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.xiaolin.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.service.RollingRankService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author xlxing
+ * @Description 滚动窗口增量推进与重建结果一致
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class RollingRankTest {
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RollingRankService rollingRankService;
+
+    @Test
+    public void testRoll() {
+        long bookId = 999_999L;
+        int hours = 24;
+        String sortKey = RedisConstant.getRollingSortKey(hours);
+        String cursorKey = RedisConstant.getRollingCursorKey(hours);
+        LocalDateTime latestClosed = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        // 倒数第i个小时桶的点击量为i+1
+        for (int i=0; i<30; i++) {
+            redisTemplate.opsForZSet().add(RedisConstant.getSortHourKey(latestClosed.minusHours(i)), bookId, i + 1);
+        }
+
+        // 窗口停在两个小时之前：包含倒数第2~25个小时桶
+        redisTemplate.opsForZSet().add(sortKey, bookId, sum(3, 26));
+        stringRedisTemplate.opsForValue().set(cursorKey,
+                latestClosed.minusHours(2).format(DateTimeFormatter.ofPattern("yyyyMMddHH")));
+        rollingRankService.roll();
+        assertEquals(sum(1, 24), redisTemplate.opsForZSet().score(sortKey, bookId));
+
+        // 没有游标时重建
+        stringRedisTemplate.delete(cursorKey);
+        redisTemplate.opsForZSet().remove(sortKey, bookId);
+        rollingRankService.roll();
+        assertEquals(sum(1, 24), redisTemplate.opsForZSet().score(sortKey, bookId));
+
+        for (int i=0; i<30; i++) {
+            redisTemplate.opsForZSet().remove(RedisConstant.getSortHourKey(latestClosed.minusHours(i)), bookId);
+        }
+        redisTemplate.opsForZSet().remove(sortKey, bookId);
+    }
+
+    private static double sum(int from, int to) {
+        return (double) (from + to) * (to - from + 1) / 2;
+    }
+}
@@ -0,0 +1,58 @@
+package org.xiaolin.redis;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.xiaolin.redis.common.resp.SeekPage;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.exception.GlobalException;
+import org.xiaolin.redis.service.BookService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author xlxing
+ * @Description 游标分页与ORDER BY update_time DESC, id DESC的结果一致
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class SeekPageTest {
+    @Autowired
+    private BookService bookService;
+
+    @Test
+    public void testSeek() {
+        List<Long> expected = bookService.list(new LambdaQueryWrapper<Book>()
+                        .orderByDesc(Book::getUpdateTime).orderByDesc(Book::getId))
+                .stream().map(Book::getId).toList();
+
+        List<Long> actual = new ArrayList<>();
+        String cursor = null;
+        do {
+            SeekPage<Book> page = bookService.getBookSeek(cursor, 7, 0).getData();
+            page.getRecords().forEach(book -> actual.add(book.getId()));
+            cursor = page.getNext();
+        } while (cursor != null);
+        assertEquals(expected, actual);
+
+        // 从第一页末尾跳过两页
+        SeekPage<Book> first = bookService.getBookSeek(null, 7, 0).getData();
+        SeekPage<Book> fourth = bookService.getBookSeek(first.getNext(), 7, 14).getData();
+        assertEquals(14, fourth.getSkipped());
+        assertEquals(expected.subList(21, 28), fourth.getRecords().stream().map(Book::getId).toList());
+
+        // 跳过的记录数超过剩余记录
+        SeekPage<Book> last = bookService.getBookSeek(first.getNext(), 7, 1000).getData();
+        assertEquals(expected.size() - 7, last.getSkipped());
+        assertEquals(0, last.getRecords().size());
+        assertNull(last.getNext());
+
+        assertThrows(GlobalException.class, () -> bookService.getBookSeek("not-a-cursor", 7, 0));
+    }
+}
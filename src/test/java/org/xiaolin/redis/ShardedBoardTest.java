@@ -0,0 +1,175 @@
+package org.xiaolin.redis;
+
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.service.ClickService;
+import org.xiaolin.redis.service.ReshardService;
+import org.xiaolin.redis.utils.ShardedBoard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author xlxing
+ * @Description 总排行榜分片：分片均匀分布在各段slot上，归并结果与单个ZSET的ZREVRANGE一致，重新分片不丢失分数
+ * @create 2026/10/17
+ */
+@SpringBootTest(properties = {"rank.shard.enabled=true", "rank.shard.count=4"})
+public class ShardedBoardTest {
+    @Autowired
+    private ShardedBoard shardedBoard;
+
+    @Autowired
+    private ClickService clickService;
+
+    @Autowired
+    private ReshardService reshardService;
+
+    @Autowired
+    private RedisTemplate<String, Long> rankRedisTemplate;
+
+    @Test
+    public void testLayout() {
+        List<String> keys = shardedBoard.shardKeys(RedisConstant.getSortKey());
+        assertEquals(4, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            int slot = SlotHash.getSlot(keys.get(i));
+            assertTrue(slot >= i * 4096 && slot < (i + 1) * 4096, keys.get(i) + " -> " + slot);
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        for (long bookId = 1; bookId <= 10_000; bookId++) {
+            counts.merge(shardedBoard.shardKey(RedisConstant.getSortKey(), bookId), 1, Integer::sum);
+        }
+        counts.values().forEach(count -> assertTrue(count > 2000 && count < 3000, counts.toString()));
+    }
+
+    @Test
+    public void testMergedRange() {
+        String board = RedisConstant.getSortKey();
+        List<String> keys = shardedBoard.shardKeys(board);
+        rankRedisTemplate.delete(keys);
+        try {
+            Random random = new Random(7);
+            Map<Long, Double> scores = new HashMap<>();
+            for (long bookId = 700_000; bookId < 700_300; bookId++) {
+                // 分数范围较小，保证有大量同分的书籍
+                double score = random.nextInt(50);
+                scores.put(bookId, score);
+                rankRedisTemplate.opsForZSet().add(shardedBoard.shardKey(board, bookId), bookId, score);
+            }
+            List<Long> expected = scores.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<Long, Double>, Double>comparing(Map.Entry::getValue)
+                            .thenComparing(e -> e.getKey().toString())
+                            .reversed())
+                    .map(Map.Entry::getKey)
+                    .toList();
+            assertEquals(expected.subList(0, 100), shardedBoard.reverseRange(board, 0, 99));
+            assertEquals(expected.subList(37, 142), shardedBoard.reverseRange(board, 37, 141));
+            assertEquals(expected.subList(250, 300), shardedBoard.reverseRange(board, 250, 400));
+            assertEquals(expected.subList(37, 142), shardedBoard.reverseRangeReactive(board, 37, 141).block());
+        } finally {
+            rankRedisTemplate.delete(keys);
+        }
+    }
+
+    @Test
+    public void testAround() {
+        String board = RedisConstant.getSortKey();
+        List<String> keys = shardedBoard.shardKeys(board);
+        rankRedisTemplate.delete(keys);
+        try {
+            List<Long> expected = new ArrayList<>();
+            for (long bookId = 700_000; bookId < 700_200; bookId++) {
+                // 分数互不相同，合并后的名次是确定的
+                rankRedisTemplate.opsForZSet().add(shardedBoard.shardKey(board, bookId), bookId, 1000 - (bookId - 700_000) * 3.0);
+                expected.add(bookId);
+            }
+            ShardedBoard.Around around = shardedBoard.around(board, 700_050L, 5);
+            assertEquals(50, around.rank());
+            assertEquals(850.0, around.score());
+            assertEquals(45, around.firstRank());
+            assertEquals(expected.subList(45, 56), around.window().stream().map(t -> t.getValue()).toList());
+
+            around = shardedBoard.around(board, 700_001L, 5);
+            assertEquals(1, around.rank());
+            assertEquals(0, around.firstRank());
+            assertEquals(expected.subList(0, 7), around.window().stream().map(t -> t.getValue()).toList());
+
+            assertNull(shardedBoard.around(board, 999_999L, 5));
+        } finally {
+            rankRedisTemplate.delete(keys);
+        }
+    }
+
+    @Test
+    public void testClickWritesOneShard() {
+        Long bookId = 700_500L;
+        String board = RedisConstant.getSortKey();
+        String shardKey = shardedBoard.shardKey(board, bookId);
+        clickService.recordClick(bookId);
+        try {
+            assertEquals(1.0, rankRedisTemplate.opsForZSet().score(shardKey, bookId));
+            assertNull(rankRedisTemplate.opsForZSet().score(board, bookId));
+        } finally {
+            for (String key : List.of(shardKey, RedisConstant.getSortHourKey(), RedisConstant.getSortDayKey(),
+                    RedisConstant.getSmoothSortKey())) {
+                rankRedisTemplate.opsForZSet().remove(key, bookId);
+            }
+            rankRedisTemplate.opsForSet().remove(RedisConstant.DIRTY_SET_KEY, bookId);
+        }
+    }
+
+    @Test
+    public void testReshard() {
+        String board = "book:test:reshard";
+        List<String> keys = new ArrayList<>(ShardedBoard.shardKeys(board, 4));
+        keys.add(board);
+        rankRedisTemplate.delete(keys);
+        try {
+            Map<Long, Double> scores = new HashMap<>();
+            for (long bookId = 1; bookId <= 1000; bookId++) {
+                scores.put(bookId, (double) bookId % 97 + 1);
+                rankRedisTemplate.opsForZSet().add(board, bookId, scores.get(bookId));
+            }
+
+            assertEquals(1000, reshardService.reshard(board, 1, 4));
+            assertFalse(Boolean.TRUE.equals(rankRedisTemplate.hasKey(board)));
+            scores.forEach((bookId, score) -> assertEquals(score, rankRedisTemplate.opsForZSet()
+                    .score(ShardedBoard.shardKeys(board, 4).get(ShardedBoard.shardIndex(bookId, 4)), bookId)));
+
+            assertEquals(1000, reshardService.reshard(board, 4, 1));
+            assertEquals(1000, rankRedisTemplate.opsForZSet().zCard(board));
+            scores.forEach((bookId, score) -> assertEquals(score, rankRedisTemplate.opsForZSet().score(board, bookId)));
+
+            // 滚动发布时每个实例启动都会迁移一次，完成之后的实例不能再转移分数
+            assertEquals(1000, reshardService.reshardOnce(board, 1, 4));
+            assertEquals(0, reshardService.reshardOnce(board, 1, 4));
+            scores.forEach((bookId, score) -> assertEquals(score, rankRedisTemplate.opsForZSet()
+                    .score(ShardedBoard.shardKeys(board, 4).get(ShardedBoard.shardIndex(bookId, 4)), bookId)));
+
+            // 尚未升级的实例继续写入旧排布，下次检查时迁走
+            rankRedisTemplate.opsForZSet().incrementScore(board, 1L, 5);
+            assertEquals(1, reshardService.reshardOnce(board, 1, 4));
+            assertEquals(scores.get(1L) + 5, rankRedisTemplate.opsForZSet()
+                    .score(ShardedBoard.shardKeys(board, 4).get(ShardedBoard.shardIndex(1L, 4)), 1L));
+            assertEquals(0, reshardService.reshardOnce(board, 1, 4));
+        } finally {
+            rankRedisTemplate.delete(keys);
+            String lockKey = RedisConstant.getReshardLockKey(board, 1, 4);
+            rankRedisTemplate.delete(List.of(lockKey, lockKey + ":done"));
+        }
+    }
+}
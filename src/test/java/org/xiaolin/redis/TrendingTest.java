@@ -0,0 +1,100 @@
+package org.xiaolin.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.common.resp.TrendingBook;
+import org.xiaolin.redis.config.RankProperties;
+import org.xiaolin.redis.domain.Book;
+import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.service.TrendingService;
+import org.xiaolin.redis.service.impl.TrendingServiceImpl;
+import org.xiaolin.redis.utils.SpaceSaving;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author xlxing
+ * @Description 热门书籍：Space-Saving的误差界成立，跨实例合并计数，Redis不可用时由本地统计兜底
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class TrendingTest {
+    @Autowired
+    private TrendingServiceImpl trendingService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RankProperties rankProperties;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Test
+    public void testErrorBounds() {
+        // 10万本书、100万次点击、只跟踪200本
+        SpaceSaving sketch = new SpaceSaving(200);
+        Map<Long, Integer> exact = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 1_000_000; i++) {
+            long bookId = (long) Math.floor(Math.pow(100_000, random.nextDouble()));
+            sketch.offer(bookId, 1);
+            exact.merge(bookId, 1, Integer::sum);
+        }
+        for (SpaceSaving.Counter counter : sketch.counters()) {
+            int count = exact.get(counter.item());
+            assertTrue(counter.count() >= count && counter.count() - counter.error() <= count, counter.toString());
+        }
+        // 未被跟踪的书籍真实计数不超过min，计数超过min的书籍一定被跟踪
+        exact.forEach((bookId, count) -> {
+            if (count > sketch.min()) {
+                assertTrue(sketch.counters().stream().anyMatch(c -> c.item() == bookId), bookId + ":" + count);
+            }
+        });
+    }
+
+    @Test
+    public void testExchangeAndFallback() {
+        List<Book> books = bookService.lambdaQuery().last("limit 2").list();
+        Long local = books.get(0).getId();
+        Long remote = books.get(1).getId();
+        for (int i = 0; i < 100_000; i++) {
+            trendingService.record(local);
+        }
+
+        // 另一个实例上报的统计
+        String other = RedisConstant.TRENDING_PREFIX + "other-instance";
+        stringRedisTemplate.opsForHash().putAll(other, Map.of("min", "0", remote.toString(), "200000.0:0.0"));
+        stringRedisTemplate.opsForZSet().add(RedisConstant.TRENDING_INSTANCES_KEY, "other-instance", System.currentTimeMillis());
+        rankProperties.getTrending().setExchange(true);
+        try {
+            trendingService.tick();
+            List<TrendingService.Estimate> top = trendingService.top(2);
+            assertEquals(remote, top.get(0).bookId());
+            assertEquals(local, top.get(1).bookId());
+            assertTrue(top.get(1).estimate() >= 100_000 * 0.99);
+
+            List<TrendingBook> trending = bookService.rankTrendingBook(2).getData();
+            assertEquals(remote, trending.get(0).getBook().getId());
+            // 没有快照的排行榜降级为本地统计的热门书籍
+            assertEquals(List.of(local), bookService.rankFallback(1, 1, "book:test:fallback").getData()
+                    .stream().map(Book::getId).toList());
+        } finally {
+            rankProperties.getTrending().setExchange(false);
+            String instance = ManagementFactory.getRuntimeMXBean().getName();
+            stringRedisTemplate.delete(List.of(other, RedisConstant.TRENDING_PREFIX + instance));
+            stringRedisTemplate.opsForZSet().remove(RedisConstant.TRENDING_INSTANCES_KEY, "other-instance", instance);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.xiaolin.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.xiaolin.redis.common.constant.RedisConstant;
+import org.xiaolin.redis.service.BookService;
+import org.xiaolin.redis.service.UniqueReaderService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author xlxing
+ * @Description 每本书每天的独立读者排行榜
+ * @create 2026/10/17
+ */
+@SpringBootTest
+public class UniqueReaderTest {
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UniqueReaderService uniqueReaderService;
+
+    @Test
+    public void testUniqueReaders() {
+        LocalDateTime now = LocalDateTime.now();
+        String hllKey = RedisConstant.getUniqueHllKey(now, 1L);
+        String sortKey = RedisConstant.getUniqueSortKey(now);
+        stringRedisTemplate.delete(hllKey);
+        try {
+            // 同一读者反复阅读只算一次
+            for (int i = 0; i < 20; i++) {
+                bookService.getBook(1L, "unique-test-reader");
+            }
+            // 不带读者标识的点击不计入
+            bookService.getBook(1L);
+            assertEquals(1L, stringRedisTemplate.opsForHyperLogLog().size(hllKey));
+
+            int readers = 1000;
+            for (int i = 0; i < readers; i++) {
+                bookService.getBook(1L, "unique-test-" + i);
+                bookService.getBook(1L, "unique-test-" + i);
+            }
+            assertTrue(stringRedisTemplate.opsForSet().isMember(RedisConstant.getUniqueTouchedKey(now), "1"));
+            Long hllTtl = stringRedisTemplate.getExpire(hllKey);
+            assertTrue(hllTtl != null && hllTtl > 0);
+
+            assertTrue(uniqueReaderService.materialize(now) >= 1);
+            Double score = stringRedisTemplate.opsForZSet().score(sortKey, "1");
+            assertNotNull(score);
+            // HyperLogLog的标准误差约0.81%
+            assertEquals(readers + 1, score, (readers + 1) * 0.03);
+            Long sortTtl = stringRedisTemplate.getExpire(sortKey);
+            assertTrue(sortTtl != null && sortTtl > 0);
+
+            assertEquals(1L, bookService.rankUniqueBook(0, 0).getData().size());
+        } finally {
+            stringRedisTemplate.delete(hllKey);
+            stringRedisTemplate.opsForZSet().remove(sortKey, "1");
+            stringRedisTemplate.opsForSet().remove(RedisConstant.getUniqueTouchedKey(now), "1");
+        }
+    }
+}